@@ -1,5 +1,6 @@
 package com.eric.like.config;
 
+import com.eric.like.constant.ThumbConstant;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -19,4 +20,18 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * 临时点赞数据同步时并行处理各分片
+     */
+    @Bean("thumbSyncExecutor")
+    public Executor thumbSyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ThumbConstant.TEMP_THUMB_SHARD_COUNT);
+        executor.setMaxPoolSize(ThumbConstant.TEMP_THUMB_SHARD_COUNT);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("Sync-ThumbShard-");
+        executor.initialize();
+        return executor;
+    }
 }
\ No newline at end of file
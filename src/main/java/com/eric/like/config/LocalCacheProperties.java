@@ -0,0 +1,276 @@
+package com.eric.like.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 本地缓存 / 热 Key 探测配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.local")
+public class LocalCacheProperties {
+
+    /**
+     * 热 Key 探测器实现
+     */
+    private DetectorType detector = DetectorType.CONCURRENT;
+
+    /**
+     * 监控 Top K 个 Key
+     */
+    private int topK = 100;
+
+    /**
+     * 哈希表宽度
+     */
+    private int width = 100000;
+
+    /**
+     * 哈希表深度
+     */
+    private int depth = 5;
+
+    /**
+     * 衰减系数
+     */
+    private double decay = 0.92;
+
+    /**
+     * 最小出现次数，达到后才记录
+     */
+    private int minCount = 10;
+
+    /**
+     * 是否定时衰减热 Key 计数，striped 探测器的条带也在衰减时合并
+     */
+    private boolean fadingEnabled = false;
+
+    /**
+     * striped 探测器的条带数，0 表示取 CPU 核数
+     */
+    private int stripes = 0;
+
+    /**
+     * 滑动窗口探测器
+     */
+    private SlidingWindow slidingWindow = new SlidingWindow();
+
+    /**
+     * 本地缓存准入策略
+     */
+    private AdmissionPolicy admission = AdmissionPolicy.TOP_K;
+
+    /**
+     * TINY_LFU 策略下准入的最小频率估算，过滤只访问过一次的 key
+     */
+    private int admissionMinFrequency = 2;
+
+    /**
+     * 本地缓存最大条数
+     */
+    private long maximumSize = 1000;
+
+    /**
+     * 本地缓存写入后的过期时间，开启跨节点失效后可以调大
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+    /**
+     * 按热度决定存活时间，开启后代替 expireAfterWrite
+     */
+    private Expiry expiry = new Expiry();
+
+    /**
+     * 热 Key 提前刷新
+     */
+    private Refresh refresh = new Refresh();
+
+    /**
+     * 合并同一个 key 的并发 Redis 查询
+     */
+    private SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * 集群热 Key 聚合
+     */
+    private Cluster cluster = new Cluster();
+
+    /**
+     * 跨节点本地缓存失效
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class Cluster {
+
+        /**
+         * 是否开启集群热 Key 聚合
+         */
+        private boolean enabled = false;
+
+        /**
+         * 上报 / 聚合间隔（毫秒），节点超过 3 个间隔未上报视为下线
+         */
+        private long intervalMs = 10000;
+
+        /**
+         * 开启后单机上报 Top K 的最小次数，低于 minCount 的 key 也要上报，由全局求和后再用 minCount 判断；只影响上报，不影响本地准入
+         */
+        private int reportMinCount = 3;
+    }
+
+    @Data
+    public static class SlidingWindow {
+
+        /**
+         * 窗口长度（毫秒）
+         */
+        private long windowMs = 60000;
+
+        /**
+         * 子窗口长度（毫秒），越小滑动越平滑，每个子窗口占用一张 sketch
+         */
+        private long resolutionMs = 5000;
+
+        /**
+         * 每张 sketch 的宽度，深度沿用 depth
+         */
+        private int width = 16384;
+    }
+
+    @Data
+    public static class Expiry {
+
+        /**
+         * 是否按热度决定存活时间
+         */
+        private boolean enabled = false;
+
+        /**
+         * 最冷条目的存活时间
+         */
+        private Duration minTtl = Duration.ofSeconds(30);
+
+        /**
+         * 最热条目的存活时间
+         */
+        private Duration maxTtl = Duration.ofMinutes(30);
+
+        /**
+         * 频率到存活时间的映射曲线
+         */
+        private ExpiryCurve curve = ExpiryCurve.LOG;
+
+        /**
+         * 频率估算达到该值时取最大存活时间
+         */
+        private int saturation = 1000;
+    }
+
+    @Data
+    public static class Refresh {
+
+        /**
+         * 是否开启提前刷新
+         */
+        private boolean enabled = false;
+
+        /**
+         * 扫描 Top K 的间隔（毫秒）
+         */
+        private long intervalMs = 1000;
+
+        /**
+         * 剩余存活时间低于该值（毫秒）时刷新，应大于扫描间隔
+         */
+        private long aheadMs = 5000;
+    }
+
+    @Data
+    public static class SingleFlight {
+
+        /**
+         * 是否合并并发查询
+         */
+        private boolean enabled = true;
+
+        /**
+         * 等待其他请求查询结果的最长时间（毫秒），超时后自己直接查询
+         */
+        private long timeoutMs = 200;
+    }
+
+    @Data
+    public static class Invalidation {
+
+        /**
+         * 是否开启跨节点失效广播
+         */
+        private boolean enabled = false;
+
+        /**
+         * 合并发送间隔（毫秒），也是其他节点读到旧值的最长时间
+         */
+        private long flushIntervalMs = 50;
+
+        /**
+         * 单条消息最多携带的 key 数，攒满立即发送
+         */
+        private int maxBatchSize = 512;
+    }
+
+    /**
+     * 热 Key 探测器类型
+     */
+    public enum DetectorType {
+        /**
+         * 原始实现：Bucket 对象 + synchronized
+         */
+        HEAVY_KEEPER,
+        /**
+         * 原始数组 + CAS 实现
+         */
+        CONCURRENT,
+        /**
+         * 按线程分条带，定期合并
+         */
+        STRIPED,
+        /**
+         * 滑动时间窗口，窗口外的访问不计入
+         */
+        SLIDING_WINDOW
+    }
+
+    /**
+     * 本地缓存准入策略
+     */
+    public enum AdmissionPolicy {
+        /**
+         * 只缓存 Top K 热 Key
+         */
+        TOP_K,
+        /**
+         * 热 Key 之外，按频率估算与淘汰候选比较后准入，缓存装满最有价值的 key
+         */
+        TINY_LFU
+    }
+
+    /**
+     * 频率到存活时间的映射曲线
+     */
+    public enum ExpiryCurve {
+        /**
+         * 线性
+         */
+        LINEAR,
+        /**
+         * 对数，低频区间区分度更高
+         */
+        LOG
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.eric.like.config;
+
+import com.eric.like.manager.lock.StripedLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class LockConfig {
+
+    /**
+     * 点赞操作的用户级锁
+     */
+    @Bean
+    public StripedLock thumbLock(@Value("${thumb.lock.stripes:1024}") int stripes,
+                                 @Value("${thumb.lock.timeout:3s}") Duration timeout) {
+        return new StripedLock(stripes, timeout);
+    }
+}
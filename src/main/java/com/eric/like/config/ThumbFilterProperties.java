@@ -0,0 +1,51 @@
+package com.eric.like.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 点赞关系过滤器配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "thumb.filter")
+public class ThumbFilterProperties {
+
+    /**
+     * 是否开启，关闭后 hasThumb 在 Redis 未命中时总是回源数据库；过滤器存放在 Redis，所有节点共用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 预计点赞记录数，重建时取它和当前记录数 1.5 倍中的较大者
+     */
+    private long expectedInsertions = 1_000_000;
+
+    /**
+     * 期望误判率
+     */
+    private double fpp = 0.01;
+
+    /**
+     * 重建时每页读取的记录数
+     */
+    private int pageSize = 5000;
+
+    /**
+     * 是否按 rebuildCron 定时重建，清理取消点赞留下的残留位；关闭时只在 Redis 中还没有过滤器时构建一次
+     */
+    private boolean rebuildEnabled = false;
+
+    /**
+     * 重建 cron
+     */
+    private String rebuildCron = "0 30 3 * * ?";
+
+    /**
+     * 重建锁的过期时间，同一时刻只有一个节点重建
+     */
+    private Duration rebuildLockTtl = Duration.ofHours(1);
+}
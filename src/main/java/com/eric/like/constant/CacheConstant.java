@@ -0,0 +1,22 @@
+package com.eric.like.constant;
+
+/**
+ * 本地缓存 / 热 Key 相关常量类
+ */
+public interface CacheConstant {
+
+    /**
+     * 集群热 Key 上报节点注册表（zset，score 为最近上报时间）
+     */
+    String HOT_KEY_NODES_KEY = "hotkey:nodes";
+
+    /**
+     * 单个节点上报的 Top K（zset）
+     */
+    String HOT_KEY_NODE_KEY_PREFIX = "hotkey:node:%s";
+
+    /**
+     * 本地缓存失效广播频道
+     */
+    String CACHE_INVALIDATION_CHANNEL = "cache:invalidate";
+}
@@ -3,6 +3,8 @@ package com.eric.like.constant;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
 
+import java.util.List;
+
 /**
  * lua脚本常量类
  */
@@ -12,9 +14,11 @@ import org.springframework.data.redis.core.script.RedisScript;
      * 点赞 Lua 脚本
      * KEYS[1]       -- 临时计数键
      * KEYS[2]       -- 用户点赞状态键
+     * KEYS[3]       -- 待同步时间片索引
      * ARGV[1]       -- 用户 ID
      * ARGV[2]       -- 博客 ID
      * ARGV[3]       -- 过期时间
+     * ARGV[4]       -- 时间片
      * 返回:
      * -1: 已点赞
      * 1: 操作成功
@@ -25,6 +29,8 @@ import org.springframework.data.redis.core.script.RedisScript;
             local userId = ARGV[1]             -- 用户 ID  
             local blogId = ARGV[2]             -- 博客 ID  
             local expireTime = ARGV[3]         -- 过期时间  
+            local pendingKey = KEYS[3]         -- 待同步时间片索引（ZSET，分数为时间片）
+            local slice = ARGV[4]              -- 时间片
               
             -- 1. 检查是否已点赞（避免重复操作）  
             if redis.call('HEXISTS', userThumbKey, blogId) == 1 then
@@ -33,6 +39,8 @@ import org.springframework.data.redis.core.script.RedisScript;
               
             -- 2. 获取旧值（不存在则默认为 0）  
             local hashKey = userId .. ':' .. blogId
+            -- 临时计数键不存在时本次写入会创建它，只在这时登记到待同步索引，索引不再随每次点赞写入
+            local created = redis.call('EXISTS', tempThumbKey) == 0
             local oldNumber = tonumber(redis.call('HGET', tempThumbKey, hashKey) or 0)
               
             -- 3. 计算新值  
@@ -48,13 +56,20 @@ import org.springframework.data.redis.core.script.RedisScript;
             --     'expireTime', expireTime
             -- )
             redis.call('HSET', userThumbKey, blogId, expireTime)  
+            -- 5. 新建的临时计数键登记为待同步，同步任务只读这个索引
+            if created then
+                redis.call('ZADD', pendingKey, slice, tempThumbKey)
+            end
               
             return 1  -- 返回 1 表示成功  
             """, Long.class);
 
     /**
      * 取消点赞 Lua 脚本
-     * 参数同上
+     * KEYS 同上
+     * ARGV[1]       -- 用户 ID
+     * ARGV[2]       -- 博客 ID
+     * ARGV[3]       -- 时间片
      * 返回：
      * -1: 未点赞
      * 1: 操作成功
@@ -64,6 +79,8 @@ import org.springframework.data.redis.core.script.RedisScript;
             local userThumbKey = KEYS[2]      -- 用户点赞状态键（如 thumb:{userId}）
             local userId = ARGV[1]            -- 用户 ID  
             local blogId = ARGV[2]            -- 博客 ID  
+            local pendingKey = KEYS[3]        -- 待同步时间片索引
+            local slice = ARGV[3]             -- 时间片
               
             -- 1. 检查用户是否已点赞（若未点赞，直接返回失败）  
             if redis.call('HEXISTS', userThumbKey, blogId) ~= 1 then  
@@ -72,6 +89,7 @@ import org.springframework.data.redis.core.script.RedisScript;
               
             -- 2. 获取当前临时计数（若不存在则默认为 0）  
             local hashKey = userId .. ':' .. blogId  
+            local created = redis.call('EXISTS', tempThumbKey) == 0
             local oldNumber = tonumber(redis.call('HGET', tempThumbKey, hashKey) or 0)  
               
             -- 3. 计算新值并更新  
@@ -80,6 +98,9 @@ import org.springframework.data.redis.core.script.RedisScript;
             -- 4. 原子性操作：更新临时计数 + 删除用户点赞标记  
             redis.call('HSET', tempThumbKey, hashKey, newNumber)  
             redis.call('HDEL', userThumbKey, blogId)  
+            if created then
+                redis.call('ZADD', pendingKey, slice, tempThumbKey)
+            end
               
             return 1  -- 返回 1 表示成功  
             """, Long.class);
@@ -139,5 +160,197 @@ import org.springframework.data.redis.core.script.RedisScript;
                 return 1  
         """, Long.class);
 
+    /**
+     * 批量点赞 / 取消点赞 Lua 脚本，按顺序逐条执行，单条失败不影响其他
+     * KEYS[1]       -- 临时计数键
+     * KEYS[2]       -- 用户点赞状态键
+     * KEYS[3]       -- 待同步时间片索引
+     * ARGV[1]       -- 用户 ID
+     * ARGV[2]       -- 过期时间
+     * ARGV[3]       -- 时间片
+     * ARGV[4...]    -- 博客 ID、操作类型（1 点赞，-1 取消点赞）成对出现
+     * 返回: 每条操作的结果
+     * -1: 已点赞 / 未点赞 / 操作类型错误
+     * 1: 操作成功
+     */
+    RedisScript<List> BATCH_THUMB_SCRIPT = new DefaultRedisScript<>("""
+            local tempThumbKey = KEYS[1]
+            local userThumbKey = KEYS[2]
+            local userId = ARGV[1]
+            local expireTime = ARGV[2]
+            local pendingKey = KEYS[3]
+            local slice = ARGV[3]
+            local created = redis.call('EXISTS', tempThumbKey) == 0
+            local changed = false
+            local results = {}
+
+            for i = 4, #ARGV, 2 do
+                local blogId = ARGV[i]
+                local thumbType = tonumber(ARGV[i + 1])
+                local exists = redis.call('HEXISTS', userThumbKey, blogId) == 1
+                if (thumbType == 1 and not exists) or (thumbType == -1 and exists) then
+                    local hashKey = userId .. ':' .. blogId
+                    local oldNumber = tonumber(redis.call('HGET', tempThumbKey, hashKey) or 0)
+                    redis.call('HSET', tempThumbKey, hashKey, oldNumber + thumbType)
+                    if thumbType == 1 then
+                        redis.call('HSET', userThumbKey, blogId, expireTime)
+                    else
+                        redis.call('HDEL', userThumbKey, blogId)
+                    end
+                    changed = true
+                    results[#results + 1] = 1
+                else
+                    results[#results + 1] = -1
+                end
+            end
+            if changed and created then
+                redis.call('ZADD', pendingKey, slice, tempThumbKey)
+            end
+
+            return results
+            """, List.class);
+
+    /**
+     * 批量点赞 / 取消点赞 Lua 脚本（MQ 版本）
+     * KEYS[1]       -- 用户点赞状态键
+     * ARGV[1]       -- 过期时间
+     * ARGV[2...]    -- 博客 ID、操作类型（1 点赞，-1 取消点赞）成对出现
+     * 返回: 每条操作的结果，同上
+     */
+    RedisScript<List> BATCH_THUMB_SCRIPT_MQ = new DefaultRedisScript<>("""
+            local userThumbKey = KEYS[1]
+            local expireTime = ARGV[1]
+            local results = {}
+
+            for i = 2, #ARGV, 2 do
+                local blogId = ARGV[i]
+                local thumbType = tonumber(ARGV[i + 1])
+                local exists = redis.call('HEXISTS', userThumbKey, blogId) == 1
+                if thumbType == 1 and not exists then
+                    redis.call('HSET', userThumbKey, blogId, expireTime)
+                    results[#results + 1] = 1
+                elseif thumbType == -1 and exists then
+                    redis.call('HDEL', userThumbKey, blogId)
+                    results[#results + 1] = 1
+                else
+                    results[#results + 1] = -1
+                end
+            end
+
+            return results
+            """, List.class);
+
+    /**
+     * 临时计数键已全部落库（字段逐块 HDEL 后键不再存在）时才从待同步索引中移除；
+     * 同步期间又有写入的键保留在索引里，留给下一次同步
+     * KEYS[1]       -- 临时计数键
+     * KEYS[2]       -- 待同步时间片索引
+     */
+    RedisScript<Long> SYNC_DONE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('HLEN', KEYS[1]) == 0 then
+                return redis.call('ZREM', KEYS[2], KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 释放锁：值仍是自己的令牌时才删除，避免锁过期后误删其他实例的锁
+     * KEYS[1]       -- 锁键
+     * ARGV[1]       -- 加锁时写入的令牌
+     */
+    RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 点赞关系过滤器置位，当前位图和重建中的位图按各自的块数、哈希数分别写入
+     * KEYS[1]       -- 过滤器元数据
+     * KEYS[2]       -- 当前位图
+     * KEYS[3]       -- 重建中的位图
+     * ARGV          -- 每 3 个一组：块哈希、h1、h2
+     */
+    RedisScript<Long> FILTER_ADD_SCRIPT = new DefaultRedisScript<>("""
+            local function put(key, blocks, hashes)
+                for i = 1, #ARGV, 3 do
+                    local base = (tonumber(ARGV[i]) % blocks) * 512
+                    local h1 = tonumber(ARGV[i + 1])
+                    local h2 = tonumber(ARGV[i + 2])
+                    for j = 0, hashes - 1 do
+                        redis.call('SETBIT', key, base + (h1 + j * h2) % 512, 1)
+                    end
+                end
+            end
+
+            local meta = redis.call('HMGET', KEYS[1], 'blocks', 'hashes', 'buildingBlocks', 'buildingHashes')
+            if meta[1] then
+                put(KEYS[2], tonumber(meta[1]), tonumber(meta[2]))
+            end
+            if meta[3] then
+                put(KEYS[3], tonumber(meta[3]), tonumber(meta[4]))
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 点赞关系过滤器查询，过滤器还没建好时视为可能存在
+     * KEYS[1]       -- 过滤器元数据
+     * KEYS[2]       -- 当前位图
+     * ARGV[1..3]    -- 块哈希、h1、h2
+     * 返回:
+     * 0: 一定不存在
+     * 1: 可能存在
+     */
+    RedisScript<Long> FILTER_CHECK_SCRIPT = new DefaultRedisScript<>("""
+            local meta = redis.call('HMGET', KEYS[1], 'blocks', 'hashes')
+            if not meta[1] then
+                return 1
+            end
+            local base = (tonumber(ARGV[1]) % tonumber(meta[1])) * 512
+            local h1 = tonumber(ARGV[2])
+            local h2 = tonumber(ARGV[3])
+            for j = 0, tonumber(meta[2]) - 1 do
+                if redis.call('GETBIT', KEYS[2], base + (h1 + j * h2) % 512) == 0 then
+                    return 0
+                end
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 开始重建点赞关系过滤器：清空重建中的位图并登记它的块数和哈希数，之后的置位会同时写入
+     * KEYS[1]       -- 过滤器元数据
+     * KEYS[2]       -- 重建中的位图
+     * KEYS[3]       -- 重建上传的临时位图
+     * ARGV[1]       -- 块数
+     * ARGV[2]       -- 哈希数
+     */
+    RedisScript<Long> FILTER_BEGIN_REBUILD_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[2], KEYS[3])
+            redis.call('HSET', KEYS[1], 'buildingBlocks', ARGV[1], 'buildingHashes', ARGV[2])
+            return 1
+            """, Long.class);
+
+    /**
+     * 完成重建：上传的位图并入重建期间的置位，替换当前位图并切换元数据
+     * KEYS[1]       -- 过滤器元数据
+     * KEYS[2]       -- 当前位图
+     * KEYS[3]       -- 重建中的位图
+     * KEYS[4]       -- 重建上传的临时位图
+     */
+    RedisScript<Long> FILTER_SWAP_SCRIPT = new DefaultRedisScript<>("""
+            local meta = redis.call('HMGET', KEYS[1], 'buildingBlocks', 'buildingHashes')
+            if not meta[1] then
+                return 0
+            end
+            redis.call('BITOP', 'OR', KEYS[3], KEYS[3], KEYS[4])
+            redis.call('RENAME', KEYS[3], KEYS[2])
+            redis.call('DEL', KEYS[4])
+            redis.call('HSET', KEYS[1], 'blocks', meta[1], 'hashes', meta[2])
+            redis.call('HDEL', KEYS[1], 'buildingBlocks', 'buildingHashes')
+            return 1
+            """, Long.class);
 
 }
@@ -10,11 +10,58 @@ public interface ThumbConstant {
      */
     String USER_THUMB_KEY_PREFIX = "thumb:";
     /**
-     * 临时 点赞记录 key
+     * 临时 点赞记录 key，thumb:temp:{时间片}:{分片}
      */
     String TEMP_THUMB_KEY_PREFIX = "thumb:temp:%s";
 
+    /**
+     * 时间片长度（秒），时间片 id = 纪元秒 / 时间片长度
+     */
+    int TEMP_THUMB_SLICE_SECONDS = 10;
+
+    /**
+     * 每个时间片按用户拆成的分片数，分散单个热点 key 的写入
+     */
+    int TEMP_THUMB_SHARD_COUNT = 8;
+
+    /**
+     * 临时点赞数据同步水位（已同步到的时间片）和同步锁，不放在 thumb:temp: 下，免得被当成时间片
+     */
+    String SYNC_WATERMARK_KEY = "thumb:sync:watermark";
+
+    String SYNC_LOCK_KEY = "thumb:sync:lock";
+
+    /**
+     * 待同步的临时计数键索引（ZSET），成员为临时计数键，分数为时间片；
+     * 由点赞 Lua 脚本在临时计数键被创建时写入，每个 时间片 + 分片 只写一次，键清空后由同步任务移除
+     */
+    String SYNC_PENDING_KEY = "thumb:sync:pending";
+
+    /**
+     * 点赞关系过滤器：元数据（当前 / 重建中位图的块数和哈希数）、当前位图、重建中的位图、重建上传的临时位图、重建锁；
+     * 用同一个 hash tag，集群模式下落在同一个槽位，脚本可以同时操作
+     */
+    String FILTER_META_KEY = "{thumb:filter}:meta";
+
+    String FILTER_BITS_KEY = "{thumb:filter}:bits";
+
+    String FILTER_BUILDING_KEY = "{thumb:filter}:building";
+
+    String FILTER_UPLOAD_KEY = "{thumb:filter}:upload";
+
+    String FILTER_LOCK_KEY = "{thumb:filter}:lock";
+
     Long UN_THUMB_CONSTANT = 0L;
 
     String THUMB_TOPIC = "thumb-topic";
+
+    /**
+     * 按 (userId, blogId) 批量删除点赞记录时每条 SQL 的行数
+     */
+    int DELETE_PAIRS_CHUNK_SIZE = 500;
+
+    /**
+     * 批量点赞单次最多操作数
+     */
+    int BATCH_THUMB_MAX_SIZE = 100;
 }
@@ -2,7 +2,9 @@ package com.eric.like.controller;
 
 import com.eric.like.common.BaseResponse;
 import com.eric.like.common.ResultUtils;
+import com.eric.like.model.dto.thumb.BatchThumbRequest;
 import com.eric.like.model.dto.thumb.DoThumbRequest;
+import com.eric.like.model.vo.BatchThumbResultVO;
 import com.eric.like.service.ThumbService;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,6 +13,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/thumb")
 public class ThumbController {
@@ -29,5 +33,10 @@ public class ThumbController {
         return ResultUtils.success(success);
     }
 
+    @PostMapping("/batch")
+    public BaseResponse<List<BatchThumbResultVO>> batchThumb(@RequestBody BatchThumbRequest batchThumbRequest, HttpServletRequest request) {
+        return ResultUtils.success(thumbService.batchThumb(batchThumbRequest, request));
+    }
+
 
 }
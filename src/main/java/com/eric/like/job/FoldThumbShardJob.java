@@ -0,0 +1,43 @@
+package com.eric.like.job;
+
+import com.eric.like.manager.counter.BlogThumbCounter;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时将点赞数分片汇总到 blog 表
+ */
+@Component
+@Slf4j
+public class FoldThumbShardJob {
+
+    private static final int BATCH_SIZE = 500;
+
+    // 单次最多处理的批数，持续写入时留给下一次调度
+    private static final int MAX_BATCHES = 20;
+
+    @Resource
+    private BlogThumbCounter blogThumbCounter;
+
+    @Scheduled(initialDelay = 5000, fixedDelayString = "${thumb.counter.fold-interval-ms:5000}")
+    public void run() {
+        if (!blogThumbCounter.isSharded()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        int folded = 0;
+        for (int i = 0; i < MAX_BATCHES; i++) {
+            int batch = blogThumbCounter.fold(BATCH_SIZE);
+            folded += batch;
+            if (batch < BATCH_SIZE) {
+                break;
+            }
+        }
+        if (folded > 0) {
+            log.info("点赞数分片汇总完成，分片数 {}，耗时 {}ms", folded, System.currentTimeMillis() - startTime);
+        }
+    }
+
+}
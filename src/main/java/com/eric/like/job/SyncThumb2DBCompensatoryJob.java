@@ -1,18 +1,11 @@
 package com.eric.like.job;
 
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.util.ObjUtil;
-import com.eric.like.constant.ThumbConstant;
-import com.eric.like.util.RedisKeyUtil;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * 定时将Redis中的点赞数同步到数据库的补偿措施
  */
@@ -20,26 +13,24 @@ import java.util.Set;
 @Slf4j
 public class SyncThumb2DBCompensatoryJob {
 
-    @Resource
-    private RedisTemplate<String, Object> redisTemplate;
-
     @Resource
     private SyncThumb2DBJob syncThumb2DBJob;
 
+    @Value("${thumb.sync.compensate-enabled:false}")
+    private boolean enabled;
+
     @Scheduled(cron = "0 0 2 * * *")
     public void run() {
-        log.info("开始补偿数据");
-        Set<String> thumbKeys = redisTemplate.keys(RedisKeyUtil.getTempThumbKey("") + "*");
-        Set<String> needHandleDataSet = new HashSet<>();
-        thumbKeys.stream().filter(ObjUtil::isNotNull).forEach(thumbKey -> needHandleDataSet.add(thumbKey.replace(ThumbConstant.TEMP_THUMB_KEY_PREFIX.formatted(""), "")));
-
-        if (CollUtil.isEmpty(needHandleDataSet)) {
-            log.info("没有需要补偿的临时数据");
+        if (!enabled) {
             return;
         }
-        // 补偿数据
-        for (String date : needHandleDataSet) {
-            syncThumb2DBJob.syncThumb2DBByDate(date);
+        log.info("开始补偿数据");
+        // 只读待同步索引，不再 KEYS 扫描；补偿所有已关闭的时间片（与定时同步相同的宽限边界），不受单次追赶上限限制
+        long maxSlice = syncThumb2DBJob.closedSlice();
+        boolean done = syncThumb2DBJob.runWithLock(() -> syncThumb2DBJob.syncPending(maxSlice, 0));
+        if (!done) {
+            log.info("同步任务正在执行，跳过本次补偿");
+            return;
         }
         log.info("临时数据补偿完成");
     }
@@ -3,30 +3,50 @@ package com.eric.like.job;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.collection.CollectionUtil;
-import cn.hutool.core.date.DateTime;
-import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.text.StrPool;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.eric.like.mapper.BlogMapper;
+import com.eric.like.constant.RedisLuaScriptConstant;
+import com.eric.like.constant.ThumbConstant;
+import com.eric.like.manager.batch.ThumbBatchDeleter;
+import com.eric.like.manager.counter.BlogThumbCounter;
+import com.eric.like.manager.filter.ThumbBloomFilter;
 import com.eric.like.model.entity.Thumb;
 import com.eric.like.model.enums.ThumbTypeEnum;
 import com.eric.like.service.ThumbService;
 import com.eric.like.util.RedisKeyUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 定时将Redis中的临时点赞数据同步到数据库
+ * 水位（已同步到的时间片）存在 Redis，每次把水位之后所有已关闭的时间片按顺序同步完再推进水位
  */
 @Component
 @Slf4j
@@ -36,91 +56,302 @@ public class SyncThumb2DBJob {
     private ThumbService thumbService;
 
     @Resource
-    private BlogMapper blogMapper;
+    private ThumbBatchDeleter thumbBatchDeleter;
+
+    @Resource
+    private ThumbBloomFilter thumbBloomFilter;
+
+    @Resource
+    private BlogThumbCounter blogThumbCounter;
 
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    // 待同步索引的成员由 Lua 脚本直接写入，不是 JSON，用字符串模板读
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private Executor thumbSyncExecutor;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Value("${thumb.sync.grace-ms:1000}")
+    private long graceMs;
+
+    @Value("${thumb.sync.max-slices-per-run:360}")
+    private int maxSlicesPerRun;
+
+    @Value("${thumb.sync.lock-ttl:5m}")
+    private Duration lockTtl;
+
+    // 每个临时计数键按块流式同步，每块一个事务
+    @Value("${thumb.sync.chunk-size:1000}")
+    private int chunkSize;
+
+    // 已完整同步到的时间片，-1 表示还未读取
+    private final AtomicLong watermark = new AtomicLong(-1);
+
+    // 本机的锁标识，多实例时只有拿到锁的实例推进水位
+    private final String lockToken = UUID.randomUUID().toString();
+
+    private Timer drainTimer;
+
+    @PostConstruct
+    public void initMetrics() {
+        // 同步落后于 Redis 的时间片数 / 秒数
+        Gauge.builder("thumb.sync.lag.slices", this, job -> job.lagSlices())
+                .register(meterRegistry);
+        Gauge.builder("thumb.sync.lag.seconds", this, job -> job.lagSlices() * ThumbConstant.TEMP_THUMB_SLICE_SECONDS)
+                .register(meterRegistry);
+        Gauge.builder("thumb.sync.watermark", watermark, AtomicLong::get)
+                .register(meterRegistry);
+        drainTimer = Timer.builder("thumb.sync.drain")
+                .description("一次同步的耗时")
+                .register(meterRegistry);
+    }
+
     @Async("taskExecutor")  // 标记为异步方法同时指定自定义线程池
-    @Scheduled(initialDelay = 10000, fixedDelay = 10000)
-    @Transactional(rollbackFor = Exception.class)
+    @Scheduled(initialDelayString = "${thumb.sync.interval-ms:2000}", fixedDelayString = "${thumb.sync.interval-ms:2000}")
     public void run() {
-        log.info("开始执行");
-        String date = getTimeSlice();
-        syncThumb2DBByDate(date);
-        log.info("临时数据同步完成");
+        try {
+            runWithLock(() -> drainTimer.record(this::syncClosedSlices));
+        } catch (Exception e) {
+            log.error("临时点赞数据同步失败，水位停在 {}", watermark.get(), e);
+        }
+    }
+
+    /**
+     * 持有同步锁执行，拿不到锁（其他实例正在同步）时直接返回 false
+     */
+    public boolean runWithLock(Runnable action) {
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(ThumbConstant.SYNC_LOCK_KEY, lockToken, lockTtl);
+        if (!Boolean.TRUE.equals(locked)) {
+            return false;
+        }
+        try {
+            action.run();
+            return true;
+        } finally {
+            // 比较和删除在一个脚本里完成，令牌和锁值用同一个序列化器编码
+            redisTemplate.execute(RedisLuaScriptConstant.RELEASE_LOCK_SCRIPT,
+                    List.of(ThumbConstant.SYNC_LOCK_KEY), lockToken);
+        }
     }
 
-    public void syncThumb2DBByDate(String date) {
-        // 获取到临时点赞和取消点赞数据
-        String tempThumbKey = RedisKeyUtil.getTempThumbKey(date);
-        Map<Object, Object> allTempThumbMap = redisTemplate.opsForHash().entries(tempThumbKey);
-        boolean thumbMapEmpty = CollUtil.isEmpty(allTempThumbMap);
-        if (thumbMapEmpty) {
-            log.info("临时点赞数据为空");
+    /**
+     * 按水位同步所有已关闭的时间片，只处理 当前时间片 - 1 及之前的，正在写入的时间片不碰；
+     * 积压时单次最多追 maxSlicesPerRun 个，剩下的下一次接着追
+     */
+    public void syncClosedSlices() {
+        long closed = closedSlice();
+        long current = readWatermark(closed);
+        long to = Math.min(closed, current + maxSlicesPerRun);
+        if (to <= current) {
             return;
         }
+        long synced = syncPending(to, maxSlicesPerRun * ThumbConstant.TEMP_THUMB_SHARD_COUNT);
+        if (synced > current) {
+            redisTemplate.opsForValue().set(ThumbConstant.SYNC_WATERMARK_KEY, synced);
+            watermark.set(synced);
+        }
+        if (synced > current + 1) {
+            log.info("追赶临时点赞数据，时间片 {} ~ {}，剩余 {}", current + 1, synced, closed - synced);
+        }
+    }
 
-        // 同步 点赞 到数据库
-        // 构建插入列表并收集blogId
-        Map<Long, Long> blogThumbCountMap = new HashMap<>();
-        List<Thumb> thumbList = new ArrayList<>();
-        LambdaQueryWrapper<Thumb> wrapper = new LambdaQueryWrapper<>();
-        boolean needRemove = false;
-        for (Object userIdBlogIdObj : allTempThumbMap.keySet()) {
-            String userIdBlogId = (String) userIdBlogIdObj;
-            String[] userIdAndBlogId = userIdBlogId.split(StrPool.COLON);
-            Long userId = Long.valueOf(userIdAndBlogId[0]);
-            Long blogId = Long.valueOf(userIdAndBlogId[1]);
-            // -1 取消点赞，1 点赞
-            Integer thumbType = Integer.valueOf(allTempThumbMap.get(userIdBlogId).toString());
-            if (thumbType == ThumbTypeEnum.INCR.getValue()) {
-                Thumb thumb = new Thumb();
-                thumb.setUserId(userId);
-                thumb.setBlogId(blogId);
-                thumbList.add(thumb);
-            } else if (thumbType == ThumbTypeEnum.DECR.getValue()) {
-                // 拼接查询条件，批量删除
-                needRemove = true;
-                wrapper.or().eq(Thumb::getUserId, userId).eq(Thumb::getBlogId, blogId);
-            } else {
-                if (thumbType != ThumbTypeEnum.NON.getValue()) {
-                    log.warn("数据异常：{}", userId + "," + blogId + "," + thumbType);
-                }
+    /**
+     * 同步待同步索引中时间片不超过 maxSlice 的临时计数键，返回已完整同步到的时间片；
+     * 水位之前晚到的写入也在索引里，会在这里一并处理
+     *
+     * @param limit 单次最多处理的键数，小于等于 0 表示不限
+     */
+    public long syncPending(long maxSlice, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> pending = limit > 0
+                ? stringRedisTemplate.opsForZSet().rangeByScoreWithScores(ThumbConstant.SYNC_PENDING_KEY, Double.NEGATIVE_INFINITY, maxSlice, 0, limit)
+                : stringRedisTemplate.opsForZSet().rangeByScoreWithScores(ThumbConstant.SYNC_PENDING_KEY, Double.NEGATIVE_INFINITY, maxSlice);
+        if (CollUtil.isEmpty(pending)) {
+            return maxSlice;
+        }
+        long to = maxSlice;
+        if (limit > 0 && pending.size() >= limit) {
+            // 被截断时最后一个时间片可能只取到部分分片，留到下一次
+            long last = pending.stream().mapToLong(tuple -> tuple.getScore().longValue()).max().orElse(maxSlice);
+            to = last - 1;
+        }
+        // 按分片分组，索引按分数升序返回，分片内保持时间片顺序
+        Map<String, List<String>> keysByShard = new LinkedHashMap<>();
+        for (ZSetOperations.TypedTuple<String> tuple : pending) {
+            String tempThumbKey = tuple.getValue();
+            if (tempThumbKey == null || tuple.getScore() == null || tuple.getScore().longValue() > to) {
                 continue;
             }
-            // 计算点赞增量
-            blogThumbCountMap.put(blogId, blogThumbCountMap.getOrDefault(blogId, 0L) + thumbType);
+            String shard = tempThumbKey.substring(tempThumbKey.lastIndexOf(StrPool.COLON) + 1);
+            keysByShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(tempThumbKey);
         }
-        // 批量插入
-        if (CollectionUtil.isNotEmpty(thumbList)) {
-            log.info("批量插入点赞记录");
-            thumbService.saveBatch(thumbList);
+        // 分片之间并行；分片内按时间片顺序，同一用户的点赞 / 取消点赞按先后落库
+        CompletableFuture<?>[] futures = keysByShard.values().stream()
+                .map(keys -> CompletableFuture.runAsync(() -> keys.forEach(this::syncThumb2DBByKey), thumbSyncExecutor))
+                .toArray(CompletableFuture<?>[]::new);
+        // 任一分片失败时抛出，水位不推进，下次重试；已同步的键已从索引移除，不会重复处理
+        CompletableFuture.allOf(futures).join();
+        return to;
+    }
+
+    /**
+     * 最近一个已关闭的时间片，留出 graceMs 给跨时间片边界还在执行的写入
+     */
+    public long closedSlice() {
+        return RedisKeyUtil.getTimeSlice(System.currentTimeMillis() - graceMs) - 1;
+    }
+
+    private long readWatermark(long closed) {
+        Object value = redisTemplate.opsForValue().get(ThumbConstant.SYNC_WATERMARK_KEY);
+        if (value instanceof Number number) {
+            watermark.set(number.longValue());
+            return number.longValue();
         }
-        // 批量删除
-        if (needRemove) {
-            log.info("批量删除点赞记录");
-            thumbService.remove(wrapper);
+        // 首次运行从最近一个已关闭的时间片开始，更早的时间片仍在待同步索引里，会一并处理
+        watermark.set(closed - 1);
+        return closed - 1;
+    }
+
+    private long lagSlices() {
+        long current = watermark.get();
+        return current < 0 ? 0 : Math.max(0, closedSlice() - current);
+    }
+
+    /**
+     * 同步一个临时计数键，分块落库后逐块 HDEL；键已清空时才移出待同步索引，期间新写入的字段留到下一次
+     */
+    public void syncThumb2DBByKey(String tempThumbKey) {
+        drain(tempThumbKey);
+        redisTemplate.execute(RedisLuaScriptConstant.SYNC_DONE_SCRIPT,
+                List.of(tempThumbKey, ThumbConstant.SYNC_PENDING_KEY));
+    }
+
+    /**
+     * HSCAN 流式读取临时计数，每攒够 chunkSize 条解析成基本类型数组，单独一个事务落库，
+     * 提交后 HDEL 这些字段；内存占用只和 chunkSize 有关，与时间片大小无关
+     */
+    private void drain(String tempThumbKey) {
+        SliceChunk chunk = new SliceChunk(chunkSize);
+        ScanOptions options = ScanOptions.scanOptions().count(chunkSize).build();
+        try (Cursor<Map.Entry<Object, Object>> cursor = stringRedisTemplate.opsForHash().scan(tempThumbKey, options)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                chunk.add((String) entry.getKey(), (String) entry.getValue());
+                if (chunk.size == chunkSize) {
+                    flush(tempThumbKey, chunk);
+                    chunk.clear();
+                }
+            }
         }
-        // 批量更新博客点赞量
-        if (!blogThumbCountMap.isEmpty()) {
-            log.info("批量更新点赞量");
-            blogMapper.batchUpdateThumbCount(blogThumbCountMap);
+        if (chunk.size > 0) {
+            flush(tempThumbKey, chunk);
         }
-        // 异步删除
-        Thread.startVirtualThread(() -> {
-            log.info("异步删除点赞数据");
-            redisTemplate.delete(tempThumbKey);
+    }
+
+    private void flush(String tempThumbKey, SliceChunk chunk) {
+        // HSCAN 可能在之后的批次里再次返回已经落库的字段，这些字段已被 HDEL，这里查不到就跳过，重复返回不会重复落库
+        List<Object> present = stringRedisTemplate.opsForHash()
+                .multiGet(tempThumbKey, Arrays.<Object>asList(chunk.fields).subList(0, chunk.size));
+        transactionTemplate.executeWithoutResult(status -> {
+            // 同步 点赞 到数据库
+            Map<Long, Long> blogThumbCountMap = new HashMap<>();
+            List<Thumb> thumbList = new ArrayList<>();
+            List<Thumb> removeList = new ArrayList<>();
+            for (int i = 0; i < chunk.size; i++) {
+                if (present.get(i) == null) {
+                    continue;
+                }
+                long userId = chunk.userIds[i];
+                long blogId = chunk.blogIds[i];
+                // -1 取消点赞，1 点赞
+                int thumbType = chunk.types[i];
+                if (thumbType == ThumbTypeEnum.INCR.getValue()) {
+                    Thumb thumb = new Thumb();
+                    thumb.setUserId(userId);
+                    thumb.setBlogId(blogId);
+                    thumbList.add(thumb);
+                } else if (thumbType == ThumbTypeEnum.DECR.getValue()) {
+                    // 收集 (userId, blogId)，批量删除
+                    Thumb thumb = new Thumb();
+                    thumb.setUserId(userId);
+                    thumb.setBlogId(blogId);
+                    removeList.add(thumb);
+                } else {
+                    if (thumbType != ThumbTypeEnum.NON.getValue()) {
+                        log.warn("数据异常：{}", userId + "," + blogId + "," + thumbType);
+                    }
+                    continue;
+                }
+                // 计算点赞增量
+                blogThumbCountMap.merge(blogId, (long) thumbType, Long::sum);
+            }
+            // 批量插入
+            if (CollectionUtil.isNotEmpty(thumbList)) {
+                thumbService.saveBatch(thumbList);
+                // 过滤器在 Redis 中共用，落库时置位，所有节点都能看到
+                thumbBloomFilter.addAll(thumbList);
+            }
+            // 批量删除
+            if (CollectionUtil.isNotEmpty(removeList)) {
+                thumbBatchDeleter.removeByUserBlogPairs(removeList);
+            }
+            // 批量更新博客点赞量
+            if (!blogThumbCountMap.isEmpty()) {
+                blogThumbCounter.addAll(blogThumbCountMap);
+            }
         });
+        // 提交后删除已处理的字段，中途失败时剩余字段留在 key 里下次继续
+        stringRedisTemplate.opsForHash().delete(tempThumbKey, (Object[]) Arrays.copyOf(chunk.fields, chunk.size));
+        log.debug("临时点赞数据分块同步完成: {}，{} 条", tempThumbKey, chunk.size);
     }
 
     /**
-     * 获取时间片
+     * 一块临时计数，字段 userId:blogId 解析成基本类型数组，不产生 Long 装箱和 split 数组
      */
-    private String getTimeSlice() {
-        DateTime nowDate = DateUtil.date();
-        // 获取到当前时间前最近的整数秒，比如当前 11:20:23 ，获取到 11:20:20
-        return DateUtil.format(nowDate, "HH:mm:") + (DateUtil.second(nowDate) / 10) * 10;
+    private static class SliceChunk {
+
+        private final String[] fields;
+        private final long[] userIds;
+        private final long[] blogIds;
+        private final int[] types;
+        private int size;
+
+        // 块内去重，大小不超过块容量；跨块的重复由 flush 前的 HMGET 过滤
+        private final Set<String> seen;
+
+        SliceChunk(int capacity) {
+            this.fields = new String[capacity];
+            this.userIds = new long[capacity];
+            this.blogIds = new long[capacity];
+            this.types = new int[capacity];
+            this.seen = new HashSet<>(capacity * 2);
+        }
+
+        void add(String field, String value) {
+            if (!seen.add(field)) {
+                return;
+            }
+            int colon = field.indexOf(StrPool.C_COLON);
+            fields[size] = field;
+            userIds[size] = Long.parseLong(field, 0, colon, 10);
+            blogIds[size] = Long.parseLong(field, colon + 1, field.length(), 10);
+            types[size] = Integer.parseInt(value);
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(fields, 0, size, null);
+            seen.clear();
+            size = 0;
+        }
     }
 
 }
@@ -1,5 +1,6 @@
 package com.eric.like.job;
 
+import cn.hutool.core.util.NumberUtil;
 import com.eric.like.constant.ThumbConstant;
 import com.eric.like.listener.thumb.msg.ThumbEvent;
 import com.eric.like.model.entity.Thumb;
@@ -7,6 +8,7 @@ import com.eric.like.service.ThumbService;
 import com.google.common.collect.Sets;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
@@ -37,6 +39,10 @@ public class ThumbReconcileJob {
     @Resource
     private PulsarTemplate<ThumbEvent> pulsarTemplate;
 
+    // 对账会扫描全部用户点赞记录，默认关闭
+    @Value("${thumb.reconcile.enabled:false}")
+    private boolean enabled;
+
     /**
      * 定时任务入口（每天凌晨2点执行）
      * 该函数用于执行每日的对账任务，主要功能是比对Redis和MySQL中的数据差异，并发送补偿事件。
@@ -48,6 +54,9 @@ public class ThumbReconcileJob {
      */
     @Scheduled(cron = "0 0 2 * * ?")
     public void run() {
+        if (!enabled) {
+            return;
+        }
         long startTime = System.currentTimeMillis();
 
         // 1. 获取该分片下的所有用户ID
@@ -59,8 +68,12 @@ public class ThumbReconcileJob {
         try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(1000).build())) {
             while (cursor.hasNext()) {
                 String key = cursor.next();
-                Long userId = Long.valueOf(key.replace(ThumbConstant.USER_THUMB_KEY_PREFIX, ""));
-                userIds.add(userId);
+                String suffix = key.substring(ThumbConstant.USER_THUMB_KEY_PREFIX.length());
+                // 跳过 thumb:temp:、thumb:sync: 等非用户 key
+                if (!NumberUtil.isLong(suffix)) {
+                    continue;
+                }
+                userIds.add(Long.valueOf(suffix));
             }
         }
 
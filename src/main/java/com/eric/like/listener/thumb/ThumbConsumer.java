@@ -1,10 +1,11 @@
 package com.eric.like.listener.thumb;
 
 import cn.hutool.core.lang.Pair;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.eric.like.constant.ThumbConstant;
 import com.eric.like.listener.thumb.msg.ThumbEvent;
-import com.eric.like.mapper.BlogMapper;
+import com.eric.like.manager.batch.ThumbBatchDeleter;
+import com.eric.like.manager.counter.BlogThumbCounter;
+import com.eric.like.manager.filter.ThumbBloomFilter;
 import com.eric.like.model.entity.Thumb;
 import com.eric.like.service.ThumbService;
 import lombok.RequiredArgsConstructor;
@@ -19,7 +20,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,10 +27,14 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ThumbConsumer {
 
-    private final BlogMapper blogMapper;
+    private final BlogThumbCounter blogThumbCounter;
 
     private final ThumbService thumbService;
 
+    private final ThumbBatchDeleter thumbBatchDeleter;
+
+    private final ThumbBloomFilter thumbBloomFilter;
+
     /**
      * 批量处理MQ消息
      */
@@ -62,9 +66,8 @@ public class ThumbConsumer {
         Map<Long, Long> countMap = new ConcurrentHashMap<>();
         List<Thumb> thumbs = new ArrayList<>();
 
-        // 并行处理消息
-        LambdaQueryWrapper<Thumb> wrapper = new LambdaQueryWrapper<>();
-        AtomicReference<Boolean> needRemove = new AtomicReference<>(false);
+        // 取消点赞的 (userId, blogId)
+        List<Thumb> removeThumbs = new ArrayList<>();
 
         //1、提取事件并过滤出无效消息
         List<ThumbEvent> events = messages.stream()
@@ -109,15 +112,17 @@ public class ThumbConsumer {
                 thumbs.add(thumb);
             } else {
                 //取消点赞
-                needRemove.set(true);
-                wrapper.or().eq(Thumb::getUserId, event.getUserId()).eq(Thumb::getBlogId, event.getBlogId());
+                Thumb thumb = new Thumb();
+                thumb.setBlogId(event.getBlogId());
+                thumb.setUserId(event.getUserId());
+                removeThumbs.add(thumb);
                 countMap.merge(event.getBlogId(), -1L, Long::sum);
             }
         });
 
         // 批量更新数据库
-        if (needRemove.get()) {
-            thumbService.remove(wrapper);
+        if (!removeThumbs.isEmpty()) {
+            thumbBatchDeleter.removeByUserBlogPairs(removeThumbs);
         }
         batchUpdateBlogs(countMap);
         batchInsertThumbs(thumbs);
@@ -127,7 +132,7 @@ public class ThumbConsumer {
 
     public void batchUpdateBlogs(Map<Long, Long> countMap) {
         if (!countMap.isEmpty()) {
-            blogMapper.batchUpdateThumbCount(countMap);
+            blogThumbCounter.addAll(countMap);
         }
     }
 
@@ -135,6 +140,8 @@ public class ThumbConsumer {
         if (!thumbs.isEmpty()) {
             // 分批次插入
             thumbService.saveBatch(thumbs, 500);
+            // 过滤器在 Redis 中共用，落库时置位，所有节点都能看到
+            thumbBloomFilter.addAll(thumbs);
         }
     }
 
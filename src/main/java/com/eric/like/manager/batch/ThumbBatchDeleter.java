@@ -0,0 +1,36 @@
+package com.eric.like.manager.batch;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.collection.ListUtil;
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import com.eric.like.constant.ThumbConstant;
+import com.eric.like.mapper.ThumbMapper;
+import com.eric.like.model.entity.Thumb;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 按 (userId, blogId) 批量删除点赞记录
+ * 每 DELETE_PAIRS_CHUNK_SIZE 条生成一条 (userId, blogId) IN ((?,?),...)，所有块作为一个 JDBC 批次执行，
+ * 避免逐条 OR 拼接出超长 SQL
+ */
+@Component
+public class ThumbBatchDeleter {
+
+    private static final Log LOG = LogFactory.getLog(ThumbBatchDeleter.class);
+
+    public boolean removeByUserBlogPairs(Collection<Thumb> pairs) {
+        if (CollUtil.isEmpty(pairs)) {
+            return false;
+        }
+        List<List<Thumb>> chunks = ListUtil.partition(new ArrayList<>(pairs), ThumbConstant.DELETE_PAIRS_CHUNK_SIZE);
+        return SqlHelper.executeBatch(SqlHelper.sqlSessionFactory(Thumb.class), LOG, chunks, chunks.size(),
+                (sqlSession, chunk) -> sqlSession.getMapper(ThumbMapper.class).deleteByUserBlogPairs(chunk));
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.eric.like.manager.batch;
+
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.eric.like.constant.ThumbConstant;
+import com.eric.like.manager.cache.CacheManager;
+import com.eric.like.manager.cache.LongPairKey;
+import com.eric.like.manager.counter.BlogThumbCounter;
+import com.eric.like.manager.filter.ThumbBloomFilter;
+import com.eric.like.mapper.BlogMapper;
+import com.eric.like.mapper.ThumbMapper;
+import com.eric.like.model.entity.Blog;
+import com.eric.like.model.entity.Thumb;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * 同步点赞的组提交
+ * 并发的点赞 / 取消点赞请求先进入队列，提交线程攒够 maxBatchSize 个或等待 maxWaitMs 后，
+ * 在一个事务里批量插入 / 删除点赞记录，并按博客聚合后一次更新点赞数，减少热点博客行锁的排队；
+ * 批内按到达顺序逐个校验，每个请求拿到自己的结果，调用方仍是同步语义；博客不存在的请求返回 false
+ */
+@Component
+@Slf4j
+public class ThumbGroupCommitter {
+
+    @Resource
+    private ThumbMapper thumbMapper;
+
+    @Resource
+    private BlogMapper blogMapper;
+
+    @Resource
+    private BlogThumbCounter blogThumbCounter;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private CacheManager cacheManager;
+
+    @Resource
+    private ThumbBloomFilter thumbBloomFilter;
+
+    @Getter
+    @Value("${thumb.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${thumb.group-commit.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${thumb.group-commit.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    private final BlockingQueue<ThumbOp> queue = new LinkedBlockingQueue<>();
+
+    private Thread committer;
+
+    record ThumbOp(long userId, long blogId, boolean thumb, CompletableFuture<Boolean> result) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            committer = Thread.ofPlatform().daemon().name("thumb-group-committer").start(this::run);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (committer != null) {
+            committer.interrupt();
+        }
+    }
+
+    /**
+     * 提交一次点赞 / 取消点赞，阻塞到所在批次提交完成
+     */
+    public Boolean submit(long userId, long blogId, boolean thumb) {
+        try {
+            return submitAsync(userId, blogId, thumb).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 提交一次点赞 / 取消点赞，不等待；批量接口一次提交多条，再统一等待
+     */
+    public CompletableFuture<Boolean> submitAsync(long userId, long blogId, boolean thumb) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        queue.add(new ThumbOp(userId, blogId, thumb, result));
+        return result;
+    }
+
+    private void run() {
+        List<ThumbOp> batch = new ArrayList<>(maxBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < maxBatchSize) {
+                    ThumbOp op = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (op == null) {
+                        break;
+                    }
+                    batch.add(op);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // 已出队但还没提交的请求也要失败，否则调用方会一直等待
+                batch.forEach(op -> op.result().completeExceptionally(new RuntimeException("服务正在关闭")));
+            } catch (Exception e) {
+                log.error("点赞组提交失败", e);
+                batch.forEach(op -> op.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        // 关闭时未处理的请求直接失败
+        ThumbOp op;
+        while ((op = queue.poll()) != null) {
+            op.result().completeExceptionally(new RuntimeException("服务正在关闭"));
+        }
+    }
+
+    void commit(List<ThumbOp> batch) {
+        // 一次查询确认批内涉及的博客都存在
+        Set<Long> blogIds = batch.stream().map(ThumbOp::blogId).collect(Collectors.toSet());
+        Set<Long> existing = blogMapper.selectBatchIds(blogIds).stream()
+                .map(Blog::getId)
+                .collect(Collectors.toSet());
+        // 批内按到达顺序校验，同一用户同一博客的多次操作基于前一次的结果
+        Map<LongPairKey, Object> states = new HashMap<>();
+        Map<LongPairKey, Thumb> inserts = new LinkedHashMap<>();
+        List<Long> deletes = new ArrayList<>();
+        Map<Long, Long> countMap = new TreeMap<>();
+        List<ThumbOp> accepted = new ArrayList<>(batch.size());
+        for (ThumbOp op : batch) {
+            if (!existing.contains(op.blogId())) {
+                op.result().complete(false);
+                continue;
+            }
+            LongPairKey pair = new LongPairKey(op.userId(), op.blogId());
+            Object state = states.containsKey(pair) ? states.get(pair) : cacheManager.get(op.userId(), op.blogId());
+            boolean liked = state instanceof Number n && n.longValue() != ThumbConstant.UN_THUMB_CONSTANT;
+            if (op.thumb()) {
+                if (liked) {
+                    op.result().completeExceptionally(new RuntimeException("用户已点赞"));
+                    continue;
+                }
+                Thumb thumb = new Thumb();
+                thumb.setId(IdWorker.getId());
+                thumb.setUserId(op.userId());
+                thumb.setBlogId(op.blogId());
+                inserts.put(pair, thumb);
+                states.put(pair, thumb.getId());
+                countMap.merge(op.blogId(), 1L, Long::sum);
+            } else {
+                if (!liked) {
+                    op.result().completeExceptionally(new RuntimeException("用户未点赞"));
+                    continue;
+                }
+                // 同批内先点赞后取消，两条抵消
+                if (inserts.remove(pair) == null) {
+                    deletes.add(((Number) state).longValue());
+                }
+                states.put(pair, ThumbConstant.UN_THUMB_CONSTANT);
+                countMap.merge(op.blogId(), -1L, Long::sum);
+            }
+            accepted.add(op);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!inserts.isEmpty()) {
+                Db.saveBatch(new ArrayList<>(inserts.values()));
+            }
+            if (!deletes.isEmpty()) {
+                thumbMapper.deleteByIds(deletes);
+            }
+            blogThumbCounter.addAll(countMap);
+        });
+
+        // 事务已提交，写入已经持久化：更新过滤器和缓存失败只记录日志，不影响请求结果
+        try {
+            thumbBloomFilter.addAll(inserts.values());
+        } catch (Exception e) {
+            log.error("点赞组提交后更新过滤器失败", e);
+        }
+        // 按每个 (用户, 博客) 的最终状态更新 Redis 和本地缓存
+        states.forEach((pair, state) -> {
+            try {
+                String hashKey = ThumbConstant.USER_THUMB_KEY_PREFIX + pair.k1();
+                String fieldKey = String.valueOf(pair.k2());
+                if (ThumbConstant.UN_THUMB_CONSTANT.equals(state)) {
+                    redisTemplate.opsForHash().delete(hashKey, fieldKey);
+                } else {
+                    redisTemplate.opsForHash().put(hashKey, fieldKey, state);
+                }
+                cacheManager.putIfPresent(pair.k1(), pair.k2(), state);
+            } catch (Exception e) {
+                log.error("点赞组提交后更新缓存失败，userId={}，blogId={}", pair.k1(), pair.k2(), e);
+            }
+        });
+        accepted.forEach(op -> op.result().complete(true));
+    }
+
+}
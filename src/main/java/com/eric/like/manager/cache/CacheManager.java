@@ -1,15 +1,41 @@
 package com.eric.like.manager.cache;
 
+import cn.hutool.core.util.IdUtil;
+import com.eric.like.config.LocalCacheProperties;
+import com.eric.like.constant.ThumbConstant;
+import com.eric.like.manager.cache.cluster.ClusterHotKeyAggregator;
+import com.eric.like.manager.cache.cluster.RedisHotKeyChannel;
+import com.eric.like.manager.cache.invalidation.CacheInvalidationBus;
+import com.eric.like.manager.cache.invalidation.RedisCacheInvalidationChannel;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
 
 /**
  * 缓存类
@@ -18,38 +44,160 @@ import java.util.concurrent.TimeUnit;
  */
 @Component
 @Slf4j
-public class CacheManager {
+public class CacheManager implements SmartInitializingSingleton {
 
     private TopK hotKeyDetector;
 
-    private Cache<String, Object> localCache;
+    // key 为 hashKey:field 字符串，或用户点赞状态的 LongPairKey(userId, blogId)
+    private Cache<Object, Object> localCache;
 
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private LocalCacheProperties localCacheProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    // 本节点标识，集群聚合和失效广播共用
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    // 按热度决定存活时间，未开启时为 null
+    private HotnessExpiry hotnessExpiry;
+
+    // 跨节点失效总线，未开启时为 null
+    private CacheInvalidationBus invalidationBus;
+
+    // 集群热 Key 聚合，未开启时为 null
+    private ClusterHotKeyAggregator clusterHotKeyAggregator;
+
+    // 消费被挤出热 Key 的线程
+    private Thread expelledDrainer;
+
+    // 因变热写入本地缓存的次数
+    private final LongAdder promotions = new LongAdder();
+
+    // 因跌出 Top K 从本地缓存移除的次数
+    private final LongAdder demotions = new LongAdder();
+
+    // 提前刷新成功的次数
+    private final LongAdder refreshes = new LongAdder();
+
+    // 正在提前刷新的 key
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    // TINY_LFU 准入比较用的淘汰候选，由 sampleAdmissionVictim 定时更新
+    private volatile Object admissionVictim;
+
+    // 正在查询 Redis 的 key，并发未命中共用同一个结果
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // 读取各阶段指标：本地命中、Redis 命中、Redis 也不存在，以及 Redis 读取耗时
+    private Counter localHits;
+    private Counter redisHits;
+    private Counter misses;
+    private Timer redisFetchTimer;
+    private Counter coalesced;
+    private Counter singleFlightFallbacks;
+
+    @PostConstruct
+    public void initMetrics() {
+        localHits = meterRegistry.counter("cache.local.gets", "result", "local_hit");
+        redisHits = meterRegistry.counter("cache.local.gets", "result", "redis_hit");
+        misses = meterRegistry.counter("cache.local.gets", "result", "miss");
+        redisFetchTimer = Timer.builder("cache.local.redis.fetch")
+                .description("本地缓存未命中时读取 Redis 的耗时")
+                .register(meterRegistry);
+        coalesced = meterRegistry.counter("cache.local.singleflight", "outcome", "coalesced");
+        singleFlightFallbacks = meterRegistry.counter("cache.local.singleflight", "outcome", "fallback");
+    }
+
     @Bean
     public TopK getHotKeyDetector() {
-        hotKeyDetector = new HeavyKeeper(
-                // 监控 Top 100 Key
-                100,
-                // 哈希表宽度
-                100000,
-                // 哈希表深度
-                5,
-                // 衰减系数
-                0.92,
-                // 最小出现 10 次才记录
-                10
-        );
+        // 监控 Top K Key、哈希表宽度、哈希表深度、衰减系数、最小出现次数 均来自配置
+        int minCount = localCacheProperties.getMinCount();
+        // TINY_LFU 准入和按热度过期都要用到长尾 key 的频率估算，其余情况不维护
+        boolean trackFrequency = localCacheProperties.getAdmission() == LocalCacheProperties.AdmissionPolicy.TINY_LFU
+                || localCacheProperties.getExpiry().isEnabled();
+        LocalCacheProperties.Cluster cluster = localCacheProperties.getCluster();
+        hotKeyDetector = switch (localCacheProperties.getDetector()) {
+            case HEAVY_KEEPER -> new HeavyKeeper(
+                    localCacheProperties.getTopK(),
+                    localCacheProperties.getWidth(),
+                    localCacheProperties.getDepth(),
+                    localCacheProperties.getDecay(),
+                    minCount,
+                    trackFrequency
+            );
+            case CONCURRENT -> new ConcurrentHeavyKeeper(
+                    localCacheProperties.getTopK(),
+                    localCacheProperties.getWidth(),
+                    localCacheProperties.getDepth(),
+                    localCacheProperties.getDecay(),
+                    minCount,
+                    trackFrequency
+            );
+            case STRIPED -> new StripedHeavyKeeper(
+                    localCacheProperties.getTopK(),
+                    localCacheProperties.getWidth(),
+                    localCacheProperties.getDepth(),
+                    localCacheProperties.getDecay(),
+                    minCount,
+                    localCacheProperties.getStripes() > 0 ?
+                            localCacheProperties.getStripes() :
+                            Runtime.getRuntime().availableProcessors(),
+                    trackFrequency
+            );
+            case SLIDING_WINDOW -> new SlidingWindowTopK(
+                    localCacheProperties.getTopK(),
+                    localCacheProperties.getSlidingWindow().getWidth(),
+                    localCacheProperties.getDepth(),
+                    minCount,
+                    localCacheProperties.getSlidingWindow().getWindowMs(),
+                    localCacheProperties.getSlidingWindow().getResolutionMs()
+            );
+        };
+        if (cluster.isEnabled()) {
+            // 集群模式下单机只看到部分流量，上报用单独的探测器、用更低的 reportMinCount 选 key，
+            // 本地缓存准入仍按 minCount
+            TopK reportDetector = new ConcurrentHeavyKeeper(
+                    localCacheProperties.getTopK(),
+                    localCacheProperties.getWidth(),
+                    localCacheProperties.getDepth(),
+                    localCacheProperties.getDecay(),
+                    cluster.getReportMinCount()
+            );
+            clusterHotKeyAggregator = new ClusterHotKeyAggregator(
+                    nodeId,
+                    reportDetector,
+                    new RedisHotKeyChannel(redisTemplate, Duration.ofMillis(cluster.getIntervalMs() * 3)),
+                    localCacheProperties.getTopK(),
+                    localCacheProperties.getMinCount(),
+                    this::warmUp
+            );
+        }
         return hotKeyDetector;
     }
 
     @Bean
-    public Cache<String, Object> localCache() {
-        return localCache = Caffeine.newBuilder()
-                .maximumSize(1000)
-                .expireAfterWrite(5, TimeUnit.MINUTES)
-                .build();
+    public Cache<Object, Object> localCache() {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(localCacheProperties.getMaximumSize())
+                .recordStats();
+        LocalCacheProperties.Expiry expiry = localCacheProperties.getExpiry();
+        if (expiry.isEnabled()) {
+            // 存活时间随热度变化，频率估算在使用时才读取探测器
+            hotnessExpiry = new HotnessExpiry(this::estimate, expiry.getMinTtl(), expiry.getMaxTtl(),
+                    expiry.getCurve(), expiry.getSaturation());
+            builder.expireAfter(hotnessExpiry);
+        } else {
+            builder.expireAfterWrite(localCacheProperties.getExpireAfterWrite());
+        }
+        return localCache = builder.build();
     }
 
     // 辅助方法：构造复合 key
@@ -64,41 +212,522 @@ public class CacheManager {
         // 1. 先查本地缓存
         Object value = localCache.getIfPresent(compositeKey);
         if (value != null) {
-            log.info("本地缓存获取到数据 {} = {}", compositeKey, value);
-            // 记录访问次数（每次访问计数 +1）
-            hotKeyDetector.add(key, 1);
+            localHits.increment();
+            // 记录访问次数（每次访问计数 +1），以 composite key 计数，集群聚合后才能定位到具体缓存项
+            record(compositeKey);
             return value;
         }
 
-        // 2. 本地缓存未命中，查询 Redis
-        Object redisValue = redisTemplate.opsForHash().get(hashKey, key);
+        // 2. 本地缓存未命中，查询 Redis，同一个 key 的并发未命中只查一次
+        RedisLoad load = loadFromRedis(compositeKey, hashKey, key);
+        Object redisValue = load.value();
         if (redisValue == null) {
+            misses.increment();
             return null;
         }
+        redisHits.increment();
 
         // 3. 记录访问（计数 +1）
-        AddResult addResult = hotKeyDetector.add(key, 1);
+        AddResult addResult = record(compositeKey);
 
-        // 4. 如果是热 Key 且不在本地缓存，则缓存数据
-        if (addResult.isHotKey()) {
+        // 4. 如果是热 Key（本机或集群）且不在本地缓存，则缓存数据，只由实际查询的请求写入
+        if (load.leader() && shouldAdmit(compositeKey, addResult)) {
             localCache.put(compositeKey, redisValue);
+            promotions.increment();
         }
 
         return redisValue;
     }
 
+    /**
+     * 单个 key 的 Redis 读取结果，leader 表示本次请求实际发起了查询
+     */
+    private record RedisLoad(Object value, boolean leader) {
+    }
+
+    /**
+     * 合并同一个 key 的并发未命中：第一个请求查询 Redis，其余请求等待同一个结果；
+     * 等待超时或第一个请求失败时各自直接查询，一次慢查询不会拖住所有等待者
+     */
+    private RedisLoad loadFromRedis(Object cacheKey, String hashKey, String field) {
+        LocalCacheProperties.SingleFlight singleFlight = localCacheProperties.getSingleFlight();
+        if (!singleFlight.isEnabled()) {
+            return new RedisLoad(fetch(hashKey, field), true);
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(cacheKey, future);
+        if (existing == null) {
+            try {
+                Object value = fetch(hashKey, field);
+                future.complete(value);
+                return new RedisLoad(value, true);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(cacheKey, future);
+            }
+        }
+        coalesced.increment();
+        try {
+            return new RedisLoad(existing.get(singleFlight.getTimeoutMs(), TimeUnit.MILLISECONDS), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待缓存加载被中断");
+        } catch (TimeoutException | ExecutionException e) {
+            singleFlightFallbacks.increment();
+            return new RedisLoad(fetch(hashKey, field), false);
+        }
+    }
+
+    private Object fetch(String hashKey, String field) {
+        return redisFetchTimer.record(() -> redisTemplate.opsForHash().get(hashKey, field));
+    }
+
+    /**
+     * 批量读取同一个 hash 下的多个 field，返回值与 fields 顺序一一对应，不存在的为 null：
+     * 先查本地缓存，未命中的 field 合并成一次 HMGET，再一次遍历记录访问并把热 Key 写入本地缓存
+     */
+    public List<Object> getAll(String hashKey, Collection<String> fields) {
+        List<String> fieldList = new ArrayList<>(fields);
+        List<Object> cacheKeys = new ArrayList<>(fieldList.size());
+        for (String field : fieldList) {
+            cacheKeys.add(buildCacheKey(hashKey, field));
+        }
+        return getAll(hashKey, fieldList, cacheKeys, i -> record((String) cacheKeys.get(i)));
+    }
+
+    /**
+     * 批量读取一个用户对多篇博客的点赞状态，本地缓存 key 与 get(userId, blogId) 一致
+     */
+    public List<Object> getAll(long userId, List<Long> blogIds) {
+        List<String> fields = new ArrayList<>(blogIds.size());
+        List<Object> cacheKeys = new ArrayList<>(blogIds.size());
+        for (Long blogId : blogIds) {
+            fields.add(String.valueOf(blogId));
+            cacheKeys.add(new LongPairKey(userId, blogId));
+        }
+        return getAll(ThumbConstant.USER_THUMB_KEY_PREFIX + userId, fields, cacheKeys,
+                i -> record(userId, blogIds.get(i)));
+    }
+
+    private List<Object> getAll(String hashKey, List<String> fields, List<Object> cacheKeys,
+                                IntFunction<AddResult> recordAccess) {
+        int size = fields.size();
+        Object[] values = new Object[size];
+
+        // 1. 先查本地缓存，记录未命中的位置
+        int[] missIndexes = new int[size];
+        int missCount = 0;
+        List<Object> missFields = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            values[i] = localCache.getIfPresent(cacheKeys.get(i));
+            if (values[i] == null) {
+                missIndexes[missCount++] = i;
+                missFields.add(fields.get(i));
+            }
+        }
+
+        // 2. 未命中的 field 一次 HMGET
+        localHits.increment(size - missCount);
+        if (missCount > 0) {
+            List<Object> redisValues = redisFetchTimer.record(() -> redisTemplate.opsForHash().multiGet(hashKey, missFields));
+            int found = 0;
+            for (int j = 0; j < missCount; j++) {
+                values[missIndexes[j]] = redisValues.get(j);
+                if (values[missIndexes[j]] != null) {
+                    found++;
+                }
+            }
+            redisHits.increment(found);
+            misses.increment(missCount - found);
+        }
+
+        // 3. 记录访问，从 Redis 取到的热 Key 写入本地缓存
+        for (int i = 0, j = 0; i < size; i++) {
+            boolean missed = j < missCount && missIndexes[j] == i;
+            if (missed) {
+                j++;
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            AddResult addResult = recordAccess.apply(i);
+            if (missed && shouldAdmit(cacheKeys.get(i), addResult)) {
+                localCache.put(cacheKeys.get(i), values[i]);
+                promotions.increment();
+            }
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Redis 写入后调用：本节点有缓存则更新，其他节点的缓存通过失效广播删除
+     */
     public void putIfPresent(String hashKey, String key, Object value) {
         String compositeKey = buildCacheKey(hashKey, key);
-        Object object = localCache.getIfPresent(compositeKey);
-        if (object == null) {
+        localCache.asMap().computeIfPresent(compositeKey, (cacheKey, oldValue) -> value);
+        broadcastInvalidation(compositeKey);
+    }
+
+    /**
+     * 用户点赞状态的读路径：(userId, blogId) 直接作为本地缓存 key 和热 Key 探测 key，
+     * 本地命中时只创建一个 LongPairKey，不拼接字符串、不转字节
+     */
+    public Object get(long userId, long blogId) {
+        LongPairKey cacheKey = new LongPairKey(userId, blogId);
+
+        // 1. 先查本地缓存
+        Object value = localCache.getIfPresent(cacheKey);
+        if (value != null) {
+            localHits.increment();
+            record(userId, blogId);
+            return value;
+        }
+
+        // 2. 本地缓存未命中，查询 Redis，同一个 key 的并发未命中只查一次
+        RedisLoad load = loadFromRedis(cacheKey, ThumbConstant.USER_THUMB_KEY_PREFIX + userId, String.valueOf(blogId));
+        Object redisValue = load.value();
+        if (redisValue == null) {
+            misses.increment();
+            return null;
+        }
+        redisHits.increment();
+
+        // 3. 记录访问，热 Key 写入本地缓存
+        AddResult addResult = record(userId, blogId);
+        if (load.leader() && shouldAdmit(cacheKey, addResult)) {
+            localCache.put(cacheKey, redisValue);
+            promotions.increment();
+        }
+
+        return redisValue;
+    }
+
+    public void putIfPresent(long userId, long blogId, Object value) {
+        LongPairKey pairKey = new LongPairKey(userId, blogId);
+        localCache.asMap().computeIfPresent(pairKey, (cacheKey, oldValue) -> value);
+        broadcastInvalidation(pairKey.toString());
+    }
+
+    private void broadcastInvalidation(String name) {
+        if (invalidationBus != null) {
+            invalidationBus.publish(name);
+        }
+    }
+
+    /**
+     * 收到其他节点的失效消息，删除本地缓存，下一次读取回源 Redis
+     */
+    private void invalidateLocal(String name) {
+        localCache.invalidate(toCacheKey(name));
+    }
+
+    /**
+     * TopK / 集群上报中的 key 名还原为本地缓存 key：LongPairKey 格式的是用户点赞状态，其余是 hashKey:field
+     */
+    private static Object toCacheKey(String name) {
+        LongPairKey pairKey = LongPairKey.parse(name);
+        return pairKey != null ? pairKey : name;
+    }
+
+    /**
+     * 启动被挤出热 Key 的消费线程：跌出 Top K 的 key 不再值得占用本地缓存；
+     * 开启跨节点失效时订阅失效广播
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        registerGauges();
+        LocalCacheProperties.Invalidation invalidation = localCacheProperties.getInvalidation();
+        if (invalidation.isEnabled()) {
+            invalidationBus = new CacheInvalidationBus(
+                    nodeId,
+                    new RedisCacheInvalidationChannel(redisTemplate, redisMessageListenerContainer),
+                    Duration.ofMillis(invalidation.getFlushIntervalMs()),
+                    invalidation.getMaxBatchSize(),
+                    this::invalidateLocal
+            );
+        }
+        expelledDrainer = Thread.ofVirtual().name("hot-key-expelled-drainer").start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    demote(hotKeyDetector.expelled().take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.error("处理被挤出的热 Key 失败", e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (expelledDrainer != null) {
+            expelledDrainer.interrupt();
+        }
+        if (invalidationBus != null) {
+            invalidationBus.close();
+        }
+    }
+
+    private void demote(Item item) {
+        // 集群内仍然是热 Key 的不移除
+        if (isGlobalHot(item.key())) {
+            return;
+        }
+        Object cacheKey = toCacheKey(item.key());
+        if (hotnessExpiry != null) {
+            // 按热度过期时不直接删除，缩短到最短存活时间，期间仍可命中
+            Policy.VarExpiration<Object, Object> varExpiration = localCache.policy().expireVariably().orElseThrow();
+            Duration minTtl = Duration.ofNanos(hotnessExpiry.minNanos());
+            Optional<Duration> remaining = varExpiration.getExpiresAfter(cacheKey);
+            if (remaining.isPresent() && remaining.get().compareTo(minTtl) > 0) {
+                varExpiration.setExpiresAfter(cacheKey, minTtl);
+                demotions.increment();
+            }
+            return;
+        }
+        if (localCache.asMap().remove(cacheKey) != null) {
+            demotions.increment();
+        }
+    }
+
+    /**
+     * Caffeine 命中率 / 淘汰统计，以及热 Key 探测器状态
+     */
+    private void registerGauges() {
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "localCache");
+        FunctionCounter.builder("cache.local.promotions", promotions, LongAdder::sum)
+                .description("热 Key 写入本地缓存的次数")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.local.demotions", demotions, LongAdder::sum)
+                .description("跌出 Top K 从本地缓存移除的次数")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.local.refreshes", refreshes, LongAdder::sum)
+                .description("热 Key 提前刷新的次数")
+                .register(meterRegistry);
+        Gauge.builder("hotkey.total", hotKeyDetector, TopK::total)
+                .description("sketch 衰减后的总访问量")
+                .register(meterRegistry);
+        Gauge.builder("hotkey.expelled.queue", hotKeyDetector, topK -> topK.expelled().size())
+                .description("等待处理的被挤出 key 数")
+                .register(meterRegistry);
+        FunctionCounter.builder("hotkey.expelled.dropped", hotKeyDetector, TopK::expelledDropped)
+                .description("队列已满被丢弃的挤出记录数")
+                .register(meterRegistry);
+    }
+
+    public TopK getTopK() {
+        return hotKeyDetector;
+    }
+
+    public long getPromotions() {
+        return promotions.sum();
+    }
+
+    public long getDemotions() {
+        return demotions.sum();
+    }
+
+    public long getExpelledDrops() {
+        return hotKeyDetector.expelledDropped();
+    }
+
+    /**
+     * 从 Redis 读到的值是否写入本地缓存：本机或集群的热 Key 直接写入；
+     * TINY_LFU 策略下其余 key 在缓存未满时按最小频率准入，满了以后和定时采样的淘汰候选比较频率，高者准入
+     */
+    private boolean shouldAdmit(Object cacheKey, AddResult addResult) {
+        if (addResult.isHotKey() || isGlobalHot(cacheKey)) {
+            return true;
+        }
+        if (localCacheProperties.getAdmission() != LocalCacheProperties.AdmissionPolicy.TINY_LFU) {
+            return false;
+        }
+        int candidateFrequency = estimate(cacheKey);
+        if (candidateFrequency < localCacheProperties.getAdmissionMinFrequency()) {
+            return false;
+        }
+        Policy.Eviction<Object, Object> eviction = localCache.policy().eviction().orElse(null);
+        if (eviction == null || localCache.estimatedSize() < eviction.getMaximum()) {
+            return true;
+        }
+        // 淘汰候选由定时任务采样，这里只读取，不在未命中路径上遍历淘汰顺序
+        Object victim = admissionVictim;
+        return victim == null || candidateFrequency > estimate(victim);
+    }
+
+    // TINY_LFU 准入：定时采样即将被淘汰的 key，比较时再取它的最新频率
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.SECONDS)
+    public void sampleAdmissionVictim() {
+        if (localCacheProperties.getAdmission() != LocalCacheProperties.AdmissionPolicy.TINY_LFU) {
+            return;
+        }
+        admissionVictim = localCache.policy().eviction()
+                .flatMap(eviction -> eviction.coldest(1).keySet().stream().findFirst())
+                .orElse(null);
+    }
+
+    private int estimate(Object cacheKey) {
+        if (cacheKey instanceof LongPairKey pairKey) {
+            return hotKeyDetector.estimate(pairKey.k1(), pairKey.k2());
+        }
+        return hotKeyDetector.estimate(cacheKey.toString());
+    }
+
+    private boolean isGlobalHot(Object cacheKey) {
+        return clusterHotKeyAggregator != null && clusterHotKeyAggregator.isGlobalHot(cacheKey.toString());
+    }
+
+    /**
+     * 用集群热 Key 预热本地缓存，按 hash 分组，每个 hash 一次 HMGET
+     */
+    private void warmUp(List<Item> hotItems) {
+        Map<String, List<Object>> fieldsByHash = new HashMap<>();
+        Map<String, List<Object>> cacheKeysByHash = new HashMap<>();
+        for (Item item : hotItems) {
+            Object cacheKey = toCacheKey(item.key());
+            if (localCache.asMap().containsKey(cacheKey)) {
+                continue;
+            }
+            String[] location = redisLocation(cacheKey);
+            if (location == null) {
+                continue;
+            }
+            String hashKey = location[0];
+            fieldsByHash.computeIfAbsent(hashKey, k -> new ArrayList<>()).add(location[1]);
+            cacheKeysByHash.computeIfAbsent(hashKey, k -> new ArrayList<>()).add(cacheKey);
+        }
+        fieldsByHash.forEach((hashKey, fields) -> {
+            List<Object> values = redisTemplate.opsForHash().multiGet(hashKey, fields);
+            List<Object> cacheKeys = cacheKeysByHash.get(hashKey);
+            for (int i = 0; i < fields.size(); i++) {
+                if (values.get(i) != null) {
+                    localCache.put(cacheKeys.get(i), values.get(i));
+                    promotions.increment();
+                }
+            }
+        });
+    }
+
+    /**
+     * 本地缓存 key 对应的 Redis hash 和 field，无法解析时返回 null
+     */
+    private static String[] redisLocation(Object cacheKey) {
+        if (cacheKey instanceof LongPairKey pairKey) {
+            return new String[]{ThumbConstant.USER_THUMB_KEY_PREFIX + pairKey.k1(), String.valueOf(pairKey.k2())};
+        }
+        String name = cacheKey.toString();
+        int split = name.lastIndexOf(':');
+        if (split <= 0) {
+            return null;
+        }
+        return new String[]{name.substring(0, split), name.substring(split + 1)};
+    }
+
+    /**
+     * 条目的剩余存活时间，不在缓存中时为空
+     */
+    private Optional<Duration> remainingTtl(Object cacheKey) {
+        Policy<Object, Object> policy = localCache.policy();
+        if (policy.expireVariably().isPresent()) {
+            return policy.expireVariably().get().getExpiresAfter(cacheKey);
+        }
+        return policy.expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(cacheKey)
+                        .map(age -> expiration.getExpiresAfter().minus(age)));
+    }
+
+    // 提前刷新：Top K 中即将过期的条目在后台虚拟线程里重新读取 Redis，刷新完成前继续返回旧值
+    @Scheduled(fixedDelayString = "${cache.local.refresh.interval-ms:1000}")
+    public void refreshAhead() {
+        LocalCacheProperties.Refresh refresh = localCacheProperties.getRefresh();
+        if (!refresh.isEnabled()) {
+            return;
+        }
+        Duration ahead = Duration.ofMillis(refresh.getAheadMs());
+        for (Item item : hotKeyDetector.list()) {
+            Object cacheKey = toCacheKey(item.key());
+            Optional<Duration> remaining = remainingTtl(cacheKey);
+            if (remaining.isEmpty() || remaining.get().compareTo(ahead) > 0) {
+                continue;
+            }
+            // 同一个 key 同时只有一个刷新任务
+            if (refreshing.add(cacheKey)) {
+                Thread.ofVirtual().name("hot-key-refresh").start(() -> {
+                    try {
+                        reload(cacheKey);
+                    } catch (Exception e) {
+                        log.error("热 Key 提前刷新失败 {}", cacheKey, e);
+                    } finally {
+                        refreshing.remove(cacheKey);
+                    }
+                });
+            }
+        }
+    }
+
+    private void reload(Object cacheKey) {
+        String[] location = redisLocation(cacheKey);
+        if (location == null) {
+            return;
+        }
+        Object oldValue = localCache.getIfPresent(cacheKey);
+        Object value = fetch(location[0], location[1]);
+        if (value == null) {
+            // Redis 中已删除
+            localCache.invalidate(cacheKey);
             return;
         }
-        localCache.put(compositeKey, value);
+        // 读取期间本地值被写路径更新过则放弃，避免旧值覆盖新值
+        boolean refreshed = oldValue == null ?
+                localCache.asMap().putIfAbsent(cacheKey, value) == null :
+                localCache.asMap().replace(cacheKey, oldValue, value);
+        if (refreshed) {
+            refreshes.increment();
+        }
+    }
+
+    // 定时上报本机 Top K 并聚合集群热 Key
+    @Scheduled(fixedRateString = "${cache.local.cluster.interval-ms:10000}")
+    public void syncClusterHotKeys() {
+        if (clusterHotKeyAggregator == null) {
+            return;
+        }
+        try {
+            clusterHotKeyAggregator.tick();
+        } catch (Exception e) {
+            log.error("集群热 Key 聚合失败", e);
+        }
     }
 
-    // 定时清理过期的热 Key 检测数据
+    // 定时清理过期的热 Key 检测数据（striped 探测器在这里顺带合并条带）
     @Scheduled(fixedRate = 20, timeUnit = TimeUnit.SECONDS)
     public void cleanHotKeys() {
+        if (!localCacheProperties.isFadingEnabled()) {
+            return;
+        }
         hotKeyDetector.fading();
+        if (clusterHotKeyAggregator != null) {
+            clusterHotKeyAggregator.fading();
+        }
+    }
+
+    /**
+     * 记录一次访问，集群模式下同时计入上报用的探测器
+     */
+    private AddResult record(String key) {
+        if (clusterHotKeyAggregator != null) {
+            clusterHotKeyAggregator.record(key);
+        }
+        return hotKeyDetector.add(key, 1);
+    }
+
+    private AddResult record(long userId, long blogId) {
+        if (clusterHotKeyAggregator != null) {
+            clusterHotKeyAggregator.record(userId, blogId);
+        }
+        return hotKeyDetector.add(userId, blogId, 1);
     }
 }
\ No newline at end of file
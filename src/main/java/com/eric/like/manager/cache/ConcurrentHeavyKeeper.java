@@ -0,0 +1,277 @@
+package com.eric.like.manager.cache;
+
+import cn.hutool.core.util.HashUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 无锁版 HeavyKeeper
+ * 每个槽位是一个 long：高 8 位存纪元，中间 24 位存指纹，低 32 位存计数，整张表是一块连续的 AtomicLongArray，
+ * 槽位更新走 CAS，不再为每个槽位创建 Bucket 对象、也不再加 synchronized；
+ * 每一行使用独立种子的哈希定位，随机数使用 ThreadLocalRandom；
+ * 衰减按纪元惰性生效：fading() 只推进纪元，槽位在下一次被访问时按纪元差减半，
+ * 另外每次衰减顺带清扫一行，保证 8 位纪元不会回绕
+ */
+public class ConcurrentHeavyKeeper implements TopK {
+    private static final int LOOKUP_TABLE_SIZE = 256;
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+    private static final int FINGERPRINT_MASK = 0xFFFFFF;
+    private static final int EPOCH_MASK = 0xFF;
+    private final int width;
+    private final int depth;
+    private final double[] lookupTable;
+    // depth * width 个槽位，第 i 行从 i * width 开始
+    private final AtomicLongArray slots;
+    // 每一行的哈希种子
+    private final long[] seeds;
+    private final IndexedTopKHeap topKHeap;
+    // 长尾 key 的频率估算，只有 TINY_LFU 准入用得到，不需要时为 null
+    private final CountMinSketch frequencySketch;
+    // 累计写入量，total() = added - faded
+    private final LongAdder added;
+    private volatile long faded;
+    private final int minCount;
+    // 纪元与清扫游标，只由衰减定时任务推进
+    private volatile int epoch;
+    private int sweepRow;
+
+    public ConcurrentHeavyKeeper(int k, int width, int depth, double decay, int minCount) {
+        this(k, width, depth, decay, minCount, false);
+    }
+
+    /**
+     * @param trackFrequency 是否为 estimate() 维护频率估算
+     */
+    public ConcurrentHeavyKeeper(int k, int width, int depth, double decay, int minCount, boolean trackFrequency) {
+        if (depth > EPOCH_MASK) {
+            throw new IllegalArgumentException("depth 不能超过 " + EPOCH_MASK);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.minCount = minCount;
+
+        this.lookupTable = new double[LOOKUP_TABLE_SIZE];
+        for (int i = 0; i < LOOKUP_TABLE_SIZE; i++) {
+            lookupTable[i] = Math.pow(decay, i);
+        }
+
+        this.slots = new AtomicLongArray(depth * width);
+        this.seeds = new long[depth];
+        SplittableRandom seedRandom = new SplittableRandom();
+        for (int i = 0; i < depth; i++) {
+            seeds[i] = seedRandom.nextLong();
+        }
+
+        this.topKHeap = new IndexedTopKHeap(k);
+        this.frequencySketch = trackFrequency ? new CountMinSketch() : null;
+        this.added = new LongAdder();
+    }
+
+    @Override
+    public AddResult add(String key, int increment) {
+        long keyHash = hash(key);
+        int maxCount = addToSketch(keyHash, increment);
+        if (frequencySketch != null) {
+            frequencySketch.increment(keyHash, increment);
+        }
+        added.add(increment);
+
+        if (maxCount < minCount) {
+            return AddResult.COLD;
+        }
+
+        return topKHeap.offer(key, maxCount);
+    }
+
+    @Override
+    public AddResult add(long k1, long k2, int increment) {
+        long keyHash = hash(k1, k2);
+        int maxCount = addToSketch(keyHash, increment);
+        if (frequencySketch != null) {
+            frequencySketch.increment(keyHash, increment);
+        }
+        added.add(increment);
+
+        if (maxCount < minCount) {
+            return AddResult.COLD;
+        }
+
+        // 只有够资格进堆时才创建 key 对象
+        return topKHeap.offer(new LongPairKey(k1, k2), maxCount);
+    }
+
+    /**
+     * 在每一行对应的槽位上累加，返回本次观察到的最大计数
+     */
+    private int addToSketch(long keyHash, int increment) {
+        int fingerprint = (int) (keyHash >>> 40) & FINGERPRINT_MASK;
+        int currentEpoch = epoch & EPOCH_MASK;
+        int maxCount = 0;
+        for (int i = 0; i < depth; i++) {
+            int index = i * width + bucketIndex(keyHash, i);
+            while (true) {
+                long current = slots.get(index);
+                // 先换算到当前纪元，相当于补做错过的衰减
+                int count = count(current, currentEpoch);
+                int observed;
+                long next;
+                if (count == 0) {
+                    observed = increment;
+                    next = pack(currentEpoch, fingerprint, increment);
+                } else if (fingerprint(current) == fingerprint) {
+                    observed = saturatedAdd(count, increment);
+                    next = pack(currentEpoch, fingerprint, observed);
+                } else {
+                    // 指纹冲突：按 decay^count 的概率衰减，衰减到 0 时由当前 key 接管槽位
+                    observed = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < increment; j++) {
+                        double decay = count < LOOKUP_TABLE_SIZE ?
+                                lookupTable[count] :
+                                lookupTable[LOOKUP_TABLE_SIZE - 1];
+                        if (random.nextDouble() < decay) {
+                            count--;
+                            if (count == 0) {
+                                observed = increment - j;
+                                break;
+                            }
+                        }
+                    }
+                    next = observed > 0 ?
+                            pack(currentEpoch, fingerprint, observed) :
+                            pack(currentEpoch, fingerprint(current), count);
+                }
+                if (next == current || slots.compareAndSet(index, current, next)) {
+                    maxCount = Math.max(maxCount, observed);
+                    break;
+                }
+            }
+        }
+        return maxCount;
+    }
+
+    @Override
+    public int estimate(String key) {
+        return frequencySketch == null ? 0 : frequencySketch.estimate(hash(key));
+    }
+
+    @Override
+    public int estimate(long k1, long k2) {
+        return frequencySketch == null ? 0 : frequencySketch.estimate(hash(k1, k2));
+    }
+
+    @Override
+    public List<Item> list() {
+        return topKHeap.list();
+    }
+
+    @Override
+    public BlockingQueue<Item> expelled() {
+        return topKHeap.expelled();
+    }
+
+    @Override
+    public long expelledDropped() {
+        return topKHeap.expelledDropped();
+    }
+
+    @Override
+    public void fading() {
+        // 推进纪元：sketch 和堆里的计数都在下一次访问时按纪元差减半，这里不遍历、不加锁
+        int currentEpoch = ++epoch & EPOCH_MASK;
+        topKHeap.fade();
+        if (frequencySketch != null) {
+            frequencySketch.halve();
+        }
+
+        long current = added.sum() - faded;
+        faded += current - (current >> 1);
+
+        // 每次只清扫一行，任何槽位落后的纪元数都不超过 depth
+        sweep(sweepRow, currentEpoch);
+        sweepRow = (sweepRow + 1) % depth;
+    }
+
+    @Override
+    public long total() {
+        return added.sum() - faded;
+    }
+
+    /**
+     * 遍历堆中的原始 key 对象和计数，供分条带合并使用
+     */
+    void forEachTopK(ObjIntConsumer<Object> consumer) {
+        topKHeap.forEach(consumer);
+    }
+
+    /**
+     * 把一行槽位换算到当前纪元，只用 CAS，和写入并发执行
+     */
+    private void sweep(int row, int currentEpoch) {
+        int end = (row + 1) * width;
+        for (int i = row * width; i < end; i++) {
+            long current;
+            long next;
+            do {
+                current = slots.get(i);
+                if (count(current) == 0) {
+                    break;
+                }
+                next = pack(currentEpoch, fingerprint(current), count(current, currentEpoch));
+            } while (current != next && !slots.compareAndSet(i, current, next));
+        }
+    }
+
+    static long hash(String key) {
+        return HashUtil.murmur64(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long hash(long k1, long k2) {
+        return mix64(mix64(k1) ^ (k2 * 0x9E3779B97F4A7C15L));
+    }
+
+    private int bucketIndex(long keyHash, int row) {
+        return (int) ((mix64(keyHash ^ seeds[row]) >>> 1) % width);
+    }
+
+    private static long pack(int epoch, int fingerprint, int count) {
+        return ((long) epoch << 56) | ((long) fingerprint << 32) | (count & COUNT_MASK);
+    }
+
+    private static int fingerprint(long slot) {
+        return (int) (slot >>> 32) & FINGERPRINT_MASK;
+    }
+
+    private static int count(long slot) {
+        return (int) (slot & COUNT_MASK);
+    }
+
+    /**
+     * 换算到指定纪元的计数，每落后一个纪元减半一次
+     */
+    private static int count(long slot, int epoch) {
+        int elapsed = (epoch - (int) (slot >>> 56)) & EPOCH_MASK;
+        return count(slot) >>> Math.min(31, elapsed);
+    }
+
+    private static int saturatedAdd(int count, int increment) {
+        long sum = (long) count + increment;
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    /**
+     * MurmurHash3 的 fmix64 混淆步骤，用于从同一个 64 位哈希派生出每一行相互独立的位置
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.eric.like.manager.cache;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 频率估算用的 count-min sketch，覆盖 Top K 之外的长尾 key
+ * 估算值只会偏大不会偏小；衰减时所有计数减半，和 HeavyKeeper 的 fading 同步
+ */
+class CountMinSketch {
+
+    // 默认宽度，按本地缓存容量的十几倍取整到 2 的幂
+    static final int DEFAULT_WIDTH = 1 << 14;
+    static final int DEFAULT_DEPTH = 4;
+
+    private final int widthMask;
+    private final int depth;
+    private final long[] seeds;
+    private final AtomicIntegerArray counts;
+
+    CountMinSketch() {
+        this(DEFAULT_WIDTH, DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param width 会向上取到 2 的幂
+     */
+    CountMinSketch(int width, int depth) {
+        int tableWidth = width <= 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.widthMask = tableWidth - 1;
+        this.depth = depth;
+        this.seeds = new long[depth];
+        SplittableRandom seedRandom = new SplittableRandom();
+        for (int i = 0; i < depth; i++) {
+            seeds[i] = seedRandom.nextLong();
+        }
+        this.counts = new AtomicIntegerArray(depth * tableWidth);
+    }
+
+    void increment(long keyHash, int increment) {
+        for (int i = 0; i < depth; i++) {
+            counts.getAndAdd(index(keyHash, i), increment);
+        }
+    }
+
+    int estimate(long keyHash) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, counts.get(index(keyHash, i)));
+        }
+        return min;
+    }
+
+    /**
+     * 所有计数减半，和写入并发执行
+     */
+    void halve() {
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) != 0) {
+                counts.getAndUpdate(i, count -> count >>> 1);
+            }
+        }
+    }
+
+    private int index(long keyHash, int row) {
+        return row * (widthMask + 1) + (int) (ConcurrentHeavyKeeper.mix64(keyHash ^ seeds[row]) & widthMask);
+    }
+
+}
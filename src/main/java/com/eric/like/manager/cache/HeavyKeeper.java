@@ -5,26 +5,27 @@ import lombok.Data;
 
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * @author pine
  */
 public class HeavyKeeper implements TopK {
     private static final int LOOKUP_TABLE_SIZE = 256;
-    private final int k;
     private final int width;
     private final int depth;
     private final double[] lookupTable;
     private final Bucket[][] buckets;
-    private final PriorityQueue<Node> minHeap;
-    private final BlockingQueue<Item> expelledQueue;
+    private final IndexedTopKHeap topKHeap;
+    private final CountMinSketch frequencySketch;
     private final Random random;
     private long total;
     private final int minCount;
 
     public HeavyKeeper(int k, int width, int depth, double decay, int minCount) {
-        this.k = k;
+        this(k, width, depth, decay, minCount, false);
+    }
+
+    public HeavyKeeper(int k, int width, int depth, double decay, int minCount, boolean trackFrequency) {
         this.width = width;
         this.depth = depth;
         this.minCount = minCount;
@@ -41,8 +42,8 @@ public class HeavyKeeper implements TopK {
             }
         }
 
-        this.minHeap = new PriorityQueue<>(Comparator.comparingInt(n -> n.count));
-        this.expelledQueue = new LinkedBlockingQueue<>();
+        this.topKHeap = new IndexedTopKHeap(k);
+        this.frequencySketch = trackFrequency ? new CountMinSketch() : null;
         this.random = new Random();
         this.total = 0;
     }
@@ -85,54 +86,46 @@ public class HeavyKeeper implements TopK {
         }
 
         total += increment;
+        if (frequencySketch != null) {
+            frequencySketch.increment(ConcurrentHeavyKeeper.hash(key), increment);
+        }
         
         if (maxCount < minCount) {
-            return new AddResult(null, false, null);
+            return AddResult.COLD;
         }
         
-        synchronized (minHeap) {
-            boolean isHot = false;
-            String expelled = null;
+        return topKHeap.offer(key, maxCount);
+    }
 
-            Optional<Node> existing = minHeap.stream()
-                    .filter(n -> n.key.equals(key))
-                    .findFirst();
-            
-            if (existing.isPresent()) {
-                minHeap.remove(existing.get());
-                minHeap.add(new Node(key, maxCount));
-                isHot = true;
-            } else {
-                if (minHeap.size() < k || maxCount >= Objects.requireNonNull(minHeap.peek()).count) {
-                    Node newNode = new Node(key, maxCount);
-                    if (minHeap.size() >= k) {
-                        expelled = minHeap.poll().key;
-                        expelledQueue.offer(new Item(expelled, maxCount));
-                    }
-                    minHeap.add(newNode);
-                    isHot = true;
-                }
-            }
+    @Override
+    public AddResult add(long k1, long k2, int increment) {
+        // 原始实现按字节哈希，这里退化为字符串 key
+        return add(new LongPairKey(k1, k2).toString(), increment);
+    }
 
-            return new AddResult(expelled, isHot, key);
-        }
+    @Override
+    public int estimate(String key) {
+        return frequencySketch == null ? 0 : frequencySketch.estimate(ConcurrentHeavyKeeper.hash(key));
+    }
+
+    @Override
+    public int estimate(long k1, long k2) {
+        return estimate(new LongPairKey(k1, k2).toString());
     }
 
     @Override
     public List<Item> list() {
-        synchronized (minHeap) {
-            List<Item> result = new ArrayList<>(minHeap.size());
-            for (Node node : minHeap) {
-                result.add(new Item(node.key, node.count));
-            }
-            result.sort((a, b) -> Integer.compare(b.count(), a.count()));
-            return result;
-        }
+        return topKHeap.list();
     }
 
     @Override
     public BlockingQueue<Item> expelled() {
-        return expelledQueue;
+        return topKHeap.expelled();
+    }
+
+    @Override
+    public long expelledDropped() {
+        return topKHeap.expelledDropped();
     }
 
     @Override
@@ -145,13 +138,9 @@ public class HeavyKeeper implements TopK {
             }
         }
         
-        synchronized (minHeap) {
-            PriorityQueue<Node> newHeap = new PriorityQueue<>(Comparator.comparingInt(n -> n.count));
-            for (Node node : minHeap) {
-                newHeap.add(new Node(node.key, node.count >> 1));
-            }
-            minHeap.clear();
-            minHeap.addAll(newHeap);
+        topKHeap.fade();
+        if (frequencySketch != null) {
+            frequencySketch.halve();
         }
         
         total = total >> 1;
@@ -167,16 +156,6 @@ public class HeavyKeeper implements TopK {
         int count;
     }
 
-    private static class Node {
-        final String key;
-        final int count;
-        
-        Node(String key, int count) {
-            this.key = key;
-            this.count = count;
-        }
-    }
-
     private static int hash(byte[] data) {
         return HashUtil.murmur32(data);
     }
@@ -186,14 +165,19 @@ public class HeavyKeeper implements TopK {
 // 新增返回结果类
 @Data
 class AddResult {
+    // 未进入 TopK 时共用的结果
+    static final AddResult COLD = new AddResult(null, false, null);
+    // 进入 TopK 且没有挤出其他 key 时共用的结果，热点命中不再分配对象
+    static final AddResult HOT = new AddResult(null, true, null);
+
     // 被挤出的 key
     private final String expelledKey;
     // 当前 key 是否进入 TopK
     private final boolean isHotKey;
-    // 当前操作的 key
-    private final String currentKey;
+    // 当前操作的 key（String 或 LongPairKey）
+    private final Object currentKey;
 
-    public AddResult(String expelledKey, boolean isHotKey, String currentKey) {
+    public AddResult(String expelledKey, boolean isHotKey, Object currentKey) {
         this.expelledKey = expelledKey;
         this.isHotKey = isHotKey;
         this.currentKey = currentKey;
@@ -0,0 +1,34 @@
+package com.eric.like.manager.cache;
+
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 热 Key 监控端点：/actuator/hotkeys，返回当前 Top K 与探测器状态
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    @Resource
+    private CacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        TopK topK = cacheManager.getTopK();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", topK.total());
+        result.put("expelledQueue", topK.expelled().size());
+        result.put("expelledDropped", topK.expelledDropped());
+        result.put("promotions", cacheManager.getPromotions());
+        result.put("demotions", cacheManager.getDemotions());
+        result.put("items", topK.list());
+        return result;
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.eric.like.manager.cache;
+
+import com.eric.like.config.LocalCacheProperties;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按热度决定本地缓存条目的存活时间
+ * 写入 / 更新时按频率估算在 [minTtl, maxTtl] 之间取值，频率达到 saturation 时取 maxTtl；
+ * 读取时只会按当前热度缩短剩余时间、不会延长，条目最长存活 maxTtl，其他节点的修改最迟在此之后可见
+ */
+class HotnessExpiry implements Expiry<Object, Object> {
+
+    private final ToIntFunction<Object> frequency;
+    private final long minNanos;
+    private final long maxNanos;
+    private final LocalCacheProperties.ExpiryCurve curve;
+    private final int saturation;
+
+    HotnessExpiry(ToIntFunction<Object> frequency, Duration minTtl, Duration maxTtl,
+                  LocalCacheProperties.ExpiryCurve curve, int saturation) {
+        if (minTtl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("最小存活时间不能大于最大存活时间");
+        }
+        this.frequency = frequency;
+        this.minNanos = minTtl.toNanos();
+        this.maxNanos = maxTtl.toNanos();
+        this.curve = curve;
+        this.saturation = Math.max(1, saturation);
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return ttlNanos(frequency.applyAsInt(key));
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return ttlNanos(frequency.applyAsInt(key));
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return Math.min(currentDuration, ttlNanos(frequency.applyAsInt(key)));
+    }
+
+    long ttlNanos(int count) {
+        double ratio = switch (curve) {
+            case LINEAR -> (double) count / saturation;
+            case LOG -> Math.log1p(Math.max(0, count)) / Math.log1p(saturation);
+        };
+        ratio = Math.max(0, Math.min(1, ratio));
+        return minNanos + (long) ((maxNanos - minNanos) * ratio);
+    }
+
+    long minNanos() {
+        return minNanos;
+    }
+
+}
@@ -0,0 +1,248 @@
+package com.eric.like.manager.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 带索引的 Top K 小顶堆，key 为 String 或 LongPairKey
+ * key -> 节点 的索引让成员判断是 O(1)，节点记录自己在堆数组中的下标，计数变化时原地上浮 / 下沉，O(log k)；
+ * 已在堆中的 key 计数上涨走无锁快路径：CAS 抬高节点计数并登记为待调整，下一次持锁操作时统一下沉；
+ * 衰减按纪元惰性生效：fade() 只推进纪元，节点的有效计数 = 记录计数 >> (当前纪元 - 节点纪元)，
+ * 整体减半不改变堆序，所以不需要重建
+ */
+class IndexedTopKHeap {
+
+    // 被挤出 key 的队列容量，消费跟不上时丢弃并计数
+    static final int EXPELLED_QUEUE_CAPACITY = 1024;
+
+    private final int k;
+    private final ConcurrentHashMap<Object, Node> index;
+    private final Node[] heap;
+    private int size;
+    private final ReentrantLock lock = new ReentrantLock();
+    // 快路径里计数上涨、还没有重新下沉的节点
+    private final ConcurrentLinkedQueue<Node> pending = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<Item> expelledQueue = new ArrayBlockingQueue<>(EXPELLED_QUEUE_CAPACITY);
+    private final LongAdder expelledDropped = new LongAdder();
+    // 只由衰减定时任务推进
+    private volatile int epoch;
+
+    IndexedTopKHeap(int k) {
+        this.k = k;
+        this.index = new ConcurrentHashMap<>(k * 2);
+        this.heap = new Node[k];
+    }
+
+    /**
+     * 用 sketch 给出的计数更新 key，返回是否在 Top K 以及被挤出的 key
+     */
+    AddResult offer(Object key, int count) {
+        // 快路径：已经在堆中，只需抬高计数
+        int currentEpoch = epoch;
+        Node node = index.get(key);
+        if (node != null) {
+            if (node.raise(count, currentEpoch) && node.markPending()) {
+                pending.offer(node);
+            }
+            return AddResult.HOT;
+        }
+
+        lock.lock();
+        try {
+            drainPending();
+            node = index.get(key);
+            if (node != null) {
+                node.raise(count, currentEpoch);
+                siftDown(node.pos);
+                return AddResult.HOT;
+            }
+            if (size < k) {
+                node = new Node(key, count, currentEpoch);
+                node.pos = size;
+                heap[size++] = node;
+                index.put(key, node);
+                siftUp(node.pos);
+                return AddResult.HOT;
+            }
+            Node min = heap[0];
+            int minCount = min.count(currentEpoch);
+            if (count < minCount) {
+                return AddResult.COLD;
+            }
+            // 替换堆顶
+            index.remove(min.key);
+            min.pos = -1;
+            node = new Node(key, count, currentEpoch);
+            node.pos = 0;
+            heap[0] = node;
+            index.put(key, node);
+            siftDown(0);
+            String expelledKey = min.key.toString();
+            if (!expelledQueue.offer(new Item(expelledKey, minCount))) {
+                expelledDropped.increment();
+            }
+            return new AddResult(expelledKey, true, key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 所有计数减半：只推进纪元，不加锁、不遍历
+     */
+    void fade() {
+        epoch++;
+    }
+
+    /**
+     * 快照，只遍历索引，不阻塞写入
+     */
+    List<Item> list() {
+        int currentEpoch = epoch;
+        List<Item> result = new ArrayList<>(k);
+        for (Node node : index.values()) {
+            result.add(new Item(node.key.toString(), node.count(currentEpoch)));
+        }
+        result.sort((a, b) -> Integer.compare(b.count(), a.count()));
+        return result;
+    }
+
+    /**
+     * 遍历原始 key 对象和当前计数，不阻塞写入
+     */
+    void forEach(ObjIntConsumer<Object> consumer) {
+        int currentEpoch = epoch;
+        for (Node node : index.values()) {
+            consumer.accept(node.key, node.count(currentEpoch));
+        }
+    }
+
+    BlockingQueue<Item> expelled() {
+        return expelledQueue;
+    }
+
+    long expelledDropped() {
+        return expelledDropped.sum();
+    }
+
+    private void drainPending() {
+        Node node;
+        while ((node = pending.poll()) != null) {
+            node.clearPending();
+            // 已被挤出的节点不再处理
+            if (node.pos >= 0 && heap[node.pos] == node) {
+                siftDown(node.pos);
+            }
+        }
+    }
+
+    private void siftUp(int pos) {
+        int currentEpoch = epoch;
+        Node node = heap[pos];
+        int count = node.count(currentEpoch);
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            Node p = heap[parent];
+            if (p.count(currentEpoch) <= count) {
+                break;
+            }
+            heap[pos] = p;
+            p.pos = pos;
+            pos = parent;
+        }
+        heap[pos] = node;
+        node.pos = pos;
+    }
+
+    private void siftDown(int pos) {
+        int currentEpoch = epoch;
+        Node node = heap[pos];
+        int count = node.count(currentEpoch);
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count(currentEpoch) < heap[child].count(currentEpoch)) {
+                child = right;
+            }
+            Node c = heap[child];
+            if (count <= c.count(currentEpoch)) {
+                break;
+            }
+            heap[pos] = c;
+            c.pos = pos;
+            pos = child;
+        }
+        heap[pos] = node;
+        node.pos = pos;
+    }
+
+    private static final class Node {
+        private static final AtomicLongFieldUpdater<Node> STATE =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "state");
+        private static final AtomicIntegerFieldUpdater<Node> PENDING =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "pending");
+
+        final Object key;
+        // 高 32 位：写入时的纪元，低 32 位：写入时的计数
+        volatile long state;
+        volatile int pending;
+        // 堆数组下标，只在持锁时读写，-1 表示已移出
+        int pos;
+
+        Node(Object key, int count, int epoch) {
+            this.key = key;
+            this.state = pack(epoch, count);
+        }
+
+        /**
+         * 换算到指定纪元的有效计数
+         */
+        int count(int epoch) {
+            return decay(state, epoch);
+        }
+
+        /**
+         * 计数只升不降（衰减除外），返回是否发生了变化
+         */
+        boolean raise(int newCount, int epoch) {
+            long current;
+            do {
+                current = state;
+                // 节点已按更新的纪元写过，旧纪元读到的计数不再覆盖
+                if (epoch - (int) (current >>> 32) < 0 || newCount <= decay(current, epoch)) {
+                    return false;
+                }
+            } while (!STATE.compareAndSet(this, current, pack(epoch, newCount)));
+            return true;
+        }
+
+        boolean markPending() {
+            return PENDING.compareAndSet(this, 0, 1);
+        }
+
+        void clearPending() {
+            pending = 0;
+        }
+
+        private static long pack(int epoch, int count) {
+            return ((long) epoch << 32) | (count & 0xFFFFFFFFL);
+        }
+
+        private static int decay(long state, int epoch) {
+            int elapsed = epoch - (int) (state >>> 32);
+            int count = (int) state;
+            return elapsed <= 0 ? count : count >>> Math.min(31, elapsed);
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.eric.like.manager.cache;
+
+/**
+ * 由两个 long 组成的 key，例如 (userId, blogId)
+ * 同时作为 TopK 堆中的 key 和本地缓存的 key，避免在读路径上拼接字符串
+ */
+public record LongPairKey(long k1, long k2) {
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * 解析 toString() 的结果，不是 "long:long" 格式时返回 null
+     */
+    public static LongPairKey parse(String key) {
+        int split = key.indexOf(SEPARATOR);
+        if (split <= 0 || split == key.length() - 1 || key.indexOf(SEPARATOR, split + 1) >= 0) {
+            return null;
+        }
+        try {
+            return new LongPairKey(Long.parseLong(key, 0, split, 10),
+                    Long.parseLong(key, split + 1, key.length(), 10));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return k1 + String.valueOf(SEPARATOR) + k2;
+    }
+}
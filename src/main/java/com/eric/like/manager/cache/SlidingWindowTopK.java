@@ -0,0 +1,254 @@
+package com.eric.like.manager.cache;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 滑动窗口 Top K
+ * 时间窗口按精度切成 N 个子窗口，每个子窗口一张 count-min sketch，首尾相接成环；
+ * 另维护一张合并表 = 环上所有子窗口之和，写入时同时累加当前子窗口和合并表，估算只读合并表；
+ * 时间进入新的子窗口时清空最旧的子窗口并从合并表中减去，然后按新的计数重建堆，
+ * 窗口外的访问完全不计入，突发的新热点不需要和衰减后的历史计数竞争
+ */
+public class SlidingWindowTopK implements TopK {
+    private final int k;
+    private final int width;
+    private final int depth;
+    private final int minCount;
+    private final int windowCount;
+    private final long resolutionMillis;
+    private final long[] seeds;
+    // 子窗口环，第 slot % windowCount 个子窗口对应时间片 slot
+    private final AtomicIntegerArray[] windows;
+    private final LongAdder[] windowTotals;
+    // 环上所有子窗口之和
+    private final AtomicIntegerArray merged;
+    private volatile long currentSlot;
+    private final ReentrantLock rotateLock = new ReentrantLock();
+    // 轮转时整体替换
+    private volatile IndexedTopKHeap topKHeap;
+    private final BlockingQueue<Item> expelledQueue;
+    private final LongAdder expelledDropped;
+    private final LongSupplier clock;
+
+    /**
+     * @param windowMillis     窗口长度
+     * @param resolutionMillis 子窗口长度，窗口按它向上取整切分
+     */
+    public SlidingWindowTopK(int k, int width, int depth, int minCount, long windowMillis, long resolutionMillis) {
+        this(k, width, depth, minCount, windowMillis, resolutionMillis, System::currentTimeMillis);
+    }
+
+    SlidingWindowTopK(int k, int width, int depth, int minCount, long windowMillis, long resolutionMillis,
+                      LongSupplier clock) {
+        if (resolutionMillis <= 0 || windowMillis < resolutionMillis) {
+            throw new IllegalArgumentException("窗口长度必须不小于子窗口长度，且子窗口长度大于 0");
+        }
+        this.k = k;
+        this.width = width;
+        this.depth = depth;
+        this.minCount = minCount;
+        this.resolutionMillis = resolutionMillis;
+        this.windowCount = (int) ((windowMillis + resolutionMillis - 1) / resolutionMillis);
+        this.clock = clock;
+
+        this.seeds = new long[depth];
+        SplittableRandom seedRandom = new SplittableRandom();
+        for (int i = 0; i < depth; i++) {
+            seeds[i] = seedRandom.nextLong();
+        }
+        this.windows = new AtomicIntegerArray[windowCount];
+        this.windowTotals = new LongAdder[windowCount];
+        for (int i = 0; i < windowCount; i++) {
+            windows[i] = new AtomicIntegerArray(depth * width);
+            windowTotals[i] = new LongAdder();
+        }
+        this.merged = new AtomicIntegerArray(depth * width);
+        this.currentSlot = clock.getAsLong() / resolutionMillis;
+
+        this.topKHeap = new IndexedTopKHeap(k);
+        this.expelledQueue = new ArrayBlockingQueue<>(IndexedTopKHeap.EXPELLED_QUEUE_CAPACITY);
+        this.expelledDropped = new LongAdder();
+    }
+
+    @Override
+    public AddResult add(String key, int increment) {
+        int count = addToSketch(hash(key), increment);
+        if (count < minCount) {
+            return AddResult.COLD;
+        }
+        return offer(key, count);
+    }
+
+    @Override
+    public AddResult add(long k1, long k2, int increment) {
+        int count = addToSketch(ConcurrentHeavyKeeper.hash(k1, k2), increment);
+        if (count < minCount) {
+            return AddResult.COLD;
+        }
+        return offer(new LongPairKey(k1, k2), count);
+    }
+
+    /**
+     * 累加到当前子窗口和合并表，返回合并表上的窗口内计数估算
+     */
+    private int addToSketch(long keyHash, int increment) {
+        int windowIndex = (int) (advance() % windowCount);
+        AtomicIntegerArray window = windows[windowIndex];
+        windowTotals[windowIndex].add(increment);
+        int minCount = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int index = i * width + bucketIndex(keyHash, i);
+            window.addAndGet(index, increment);
+            minCount = Math.min(minCount, merged.addAndGet(index, increment));
+        }
+        return minCount;
+    }
+
+    private AddResult offer(Object key, int count) {
+        IndexedTopKHeap heap = topKHeap;
+        AddResult result = heap.offer(key, count);
+        if (result.getExpelledKey() != null) {
+            // 转移到自己的队列，堆在轮转时会被替换
+            Item item = heap.expelled().poll();
+            if (item != null && !expelledQueue.offer(item)) {
+                expelledDropped.increment();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int estimate(String key) {
+        return estimate(hash(key));
+    }
+
+    @Override
+    public int estimate(long k1, long k2) {
+        return estimate(ConcurrentHeavyKeeper.hash(k1, k2));
+    }
+
+    @Override
+    public List<Item> list() {
+        return topKHeap.list();
+    }
+
+    @Override
+    public BlockingQueue<Item> expelled() {
+        return expelledQueue;
+    }
+
+    @Override
+    public long expelledDropped() {
+        return expelledDropped.sum();
+    }
+
+    /**
+     * 窗口随时间自动滑动，这里只负责在没有写入时也推进窗口
+     */
+    @Override
+    public void fading() {
+        advance();
+    }
+
+    @Override
+    public long total() {
+        long total = 0;
+        for (LongAdder windowTotal : windowTotals) {
+            total += windowTotal.sum();
+        }
+        return total;
+    }
+
+    /**
+     * 推进到当前时间片，返回写入应落到的时间片；
+     * 只有拿到锁的线程做轮转，其他线程不等待，继续写当前子窗口
+     */
+    private long advance() {
+        long slot = clock.getAsLong() / resolutionMillis;
+        long current = currentSlot;
+        if (slot <= current) {
+            // 时钟回拨时继续写当前子窗口
+            return current;
+        }
+        if (!rotateLock.tryLock()) {
+            return current;
+        }
+        try {
+            rotate(slot);
+        } finally {
+            rotateLock.unlock();
+        }
+        return currentSlot;
+    }
+
+    private void rotate(long slot) {
+        long current = currentSlot;
+        if (slot <= current) {
+            return;
+        }
+        // 清空 (current, slot] 对应的子窗口，间隔超过一整个窗口时全部清空
+        for (long s = Math.max(current + 1, slot - windowCount + 1); s <= slot; s++) {
+            clear((int) (s % windowCount));
+        }
+        currentSlot = slot;
+        rebuildHeap();
+    }
+
+    /**
+     * 清空一个子窗口并从合并表中减去，getAndSet 保证减去的正是被清掉的值
+     */
+    private void clear(int windowIndex) {
+        AtomicIntegerArray window = windows[windowIndex];
+        for (int i = 0; i < window.length(); i++) {
+            int count = window.getAndSet(i, 0);
+            if (count != 0) {
+                merged.addAndGet(i, -count);
+            }
+        }
+        windowTotals[windowIndex].reset();
+    }
+
+    /**
+     * 按滑动后的计数重建堆，低于 minCount 的 key 进入 expelled 队列；
+     * 重建期间写入旧堆的更新会丢失，下一次访问时重新进入
+     */
+    private void rebuildHeap() {
+        IndexedTopKHeap fresh = new IndexedTopKHeap(k);
+        topKHeap.forEach((key, oldCount) -> {
+            int count = estimate(hash(key));
+            if (count >= minCount) {
+                fresh.offer(key, count);
+            } else if (!expelledQueue.offer(new Item(key.toString(), count))) {
+                expelledDropped.increment();
+            }
+        });
+        topKHeap = fresh;
+    }
+
+    private int estimate(long keyHash) {
+        int minCount = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            minCount = Math.min(minCount, merged.get(i * width + bucketIndex(keyHash, i)));
+        }
+        return minCount;
+    }
+
+    private static long hash(Object key) {
+        if (key instanceof LongPairKey pairKey) {
+            return ConcurrentHeavyKeeper.hash(pairKey.k1(), pairKey.k2());
+        }
+        return ConcurrentHeavyKeeper.hash(key.toString());
+    }
+
+    private int bucketIndex(long keyHash, int row) {
+        return (int) ((ConcurrentHeavyKeeper.mix64(keyHash ^ seeds[row]) >>> 1) % width);
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.eric.like.manager.cache;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分条带的 HeavyKeeper
+ * 按线程把写入分散到多个条带，每个条带持有私有的 sketch 和堆，写入之间不共享缓存行；
+ * 条带定期合并成全局 Top K 快照，list() 读取的是最近一次合并的结果；
+ * 条带的阈值按条带数均分，只用于收集候选，是否为热 Key 只看合并后计数达到 minCount 的快照
+ */
+public class StripedHeavyKeeper implements TopK {
+    // 单个条带的最小宽度
+    private static final int MIN_STRIPE_WIDTH = 1024;
+    private final int k;
+    private final int minCount;
+    private final ConcurrentHeavyKeeper[] stripes;
+    private final int mask;
+    private final BlockingQueue<Item> expelledQueue;
+    private final LongAdder expelledDropped;
+    // 最近一次合并的结果
+    private volatile List<Item> snapshot;
+    // 原始 key 对象：String 或 LongPairKey
+    private volatile Set<Object> hotKeys;
+
+    public StripedHeavyKeeper(int k, int width, int depth, double decay, int minCount, int stripeCount) {
+        this(k, width, depth, decay, minCount, stripeCount, false);
+    }
+
+    /**
+     * @param stripeCount 条带数，会向上取到 2 的幂；宽度和最小计数按条带数均分
+     * @param trackFrequency 是否为 estimate() 维护频率估算
+     */
+    public StripedHeavyKeeper(int k, int width, int depth, double decay, int minCount, int stripeCount,
+                              boolean trackFrequency) {
+        this.k = k;
+        this.minCount = minCount;
+        int stripeNum = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.mask = stripeNum - 1;
+        this.stripes = new ConcurrentHeavyKeeper[stripeNum];
+        int stripeWidth = Math.max(MIN_STRIPE_WIDTH, width / stripeNum);
+        int stripeMinCount = Math.max(1, minCount / stripeNum);
+        for (int i = 0; i < stripeNum; i++) {
+            stripes[i] = new ConcurrentHeavyKeeper(k, stripeWidth, depth, decay, stripeMinCount, trackFrequency);
+        }
+        this.expelledQueue = new ArrayBlockingQueue<>(IndexedTopKHeap.EXPELLED_QUEUE_CAPACITY);
+        this.expelledDropped = new LongAdder();
+        this.snapshot = List.of();
+        this.hotKeys = Set.of();
+    }
+
+    /**
+     * 条带的结果只用来收集候选：条带阈值被均分后可能只有 1，不能直接当作全局热 Key
+     */
+    @Override
+    public AddResult add(String key, int increment) {
+        stripe().add(key, increment);
+        return hotKeys.contains(key) ? AddResult.HOT : AddResult.COLD;
+    }
+
+    @Override
+    public AddResult add(long k1, long k2, int increment) {
+        stripe().add(k1, k2, increment);
+        LongPairKey key = new LongPairKey(k1, k2);
+        return hotKeys.contains(key) ? AddResult.HOT : AddResult.COLD;
+    }
+
+    /**
+     * 各条带只看到部分写入，估算值为所有条带之和
+     */
+    @Override
+    public int estimate(String key) {
+        int estimate = 0;
+        for (ConcurrentHeavyKeeper stripe : stripes) {
+            estimate += stripe.estimate(key);
+        }
+        return estimate;
+    }
+
+    @Override
+    public int estimate(long k1, long k2) {
+        int estimate = 0;
+        for (ConcurrentHeavyKeeper stripe : stripes) {
+            estimate += stripe.estimate(k1, k2);
+        }
+        return estimate;
+    }
+
+    @Override
+    public List<Item> list() {
+        return snapshot;
+    }
+
+    @Override
+    public BlockingQueue<Item> expelled() {
+        return expelledQueue;
+    }
+
+    @Override
+    public long expelledDropped() {
+        return expelledDropped.sum();
+    }
+
+    @Override
+    public void fading() {
+        for (ConcurrentHeavyKeeper stripe : stripes) {
+            stripe.fading();
+        }
+        merge();
+    }
+
+    @Override
+    public long total() {
+        long total = 0;
+        for (ConcurrentHeavyKeeper stripe : stripes) {
+            total += stripe.total();
+        }
+        return total;
+    }
+
+    /**
+     * 合并所有条带的 Top K，生成新的全局快照，跌出快照的 key 进入 expelled 队列
+     */
+    public void merge() {
+        Map<Object, Integer> counts = new HashMap<>();
+        for (ConcurrentHeavyKeeper stripe : stripes) {
+            stripe.forEachTopK((key, count) -> counts.merge(key, count, Integer::sum));
+            // 条带内的挤出记录没有消费者，合并时直接丢弃
+            stripe.expelled().clear();
+        }
+        List<Map.Entry<Object, Integer>> merged = new ArrayList<>(counts.size());
+        for (Map.Entry<Object, Integer> entry : counts.entrySet()) {
+            // 各条带之和达到全局 minCount 才算热 Key
+            if (entry.getValue() >= minCount) {
+                merged.add(entry);
+            }
+        }
+        merged.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        merged = merged.subList(0, Math.min(k, merged.size()));
+
+        List<Item> newSnapshot = new ArrayList<>(merged.size());
+        Set<Object> newHotKeys = new HashSet<>(merged.size() * 2);
+        Set<String> newHotKeyNames = new HashSet<>(merged.size() * 2);
+        for (Map.Entry<Object, Integer> entry : merged) {
+            String name = entry.getKey().toString();
+            newSnapshot.add(new Item(name, entry.getValue()));
+            newHotKeys.add(entry.getKey());
+            newHotKeyNames.add(name);
+        }
+        for (Item item : snapshot) {
+            if (!newHotKeyNames.contains(item.key()) && !expelledQueue.offer(item)) {
+                expelledDropped.increment();
+            }
+        }
+        this.hotKeys = newHotKeys;
+        this.snapshot = List.copyOf(newSnapshot);
+    }
+
+    private ConcurrentHeavyKeeper stripe() {
+        long id = Thread.currentThread().threadId();
+        return stripes[(int) (ConcurrentHeavyKeeper.mix64(id) & mask)];
+    }
+
+}
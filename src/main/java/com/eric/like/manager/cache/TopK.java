@@ -4,8 +4,15 @@ import java.util.concurrent.BlockingQueue;
 
 public interface TopK {
     AddResult add(String key, int increment);
+    // 以两个 long 为 key，直接对 long 哈希，读路径上不产生字符串
+    AddResult add(long k1, long k2, int increment);
+    // 频率估算，Top K 之外的 key 也能给出（只会偏大），用于本地缓存准入；未开启频率估算的实现返回 0
+    int estimate(String key);
+    int estimate(long k1, long k2);
     List<Item> list();
     BlockingQueue<Item> expelled();
+    // expelled 队列已满时被丢弃的条数
+    long expelledDropped();
     void fading();
     long total();
 }
\ No newline at end of file
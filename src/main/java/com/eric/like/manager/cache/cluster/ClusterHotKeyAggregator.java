@@ -0,0 +1,113 @@
+package com.eric.like.manager.cache.cluster;
+
+import com.eric.like.manager.cache.Item;
+import com.eric.like.manager.cache.TopK;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 集群热 Key 聚合
+ * 每个节点只看到 1/N 的流量，单机计数可能永远达不到 minCount；
+ * 这里把各节点上报的 Top K 按 key 求和，得到全局 Top K，并交给 warmer 预热本地缓存；
+ * 上报用的探测器与本地准入的探测器分开，门槛更低，不影响本地缓存的准入
+ */
+public class ClusterHotKeyAggregator {
+
+    private final String nodeId;
+
+    // 上报用的探测器，只决定上报哪些 key
+    private final TopK hotKeyDetector;
+
+    private final HotKeyChannel channel;
+
+    private final int k;
+
+    // 全局计数达到该值才算热 Key
+    private final int minCount;
+
+    private final Consumer<List<Item>> warmer;
+
+    private volatile Set<String> globalHotKeys = Set.of();
+
+    public ClusterHotKeyAggregator(String nodeId, TopK hotKeyDetector, HotKeyChannel channel,
+                                   int k, int minCount, Consumer<List<Item>> warmer) {
+        this.nodeId = nodeId;
+        this.hotKeyDetector = hotKeyDetector;
+        this.channel = channel;
+        this.k = k;
+        this.minCount = minCount;
+        this.warmer = warmer;
+    }
+
+    /**
+     * 记录一次访问
+     */
+    public void record(String key) {
+        hotKeyDetector.add(key, 1);
+    }
+
+    public void record(long k1, long k2) {
+        hotKeyDetector.add(k1, k2, 1);
+    }
+
+    public void fading() {
+        hotKeyDetector.fading();
+    }
+
+    /**
+     * 上报本节点的 Top K
+     */
+    public void publish() {
+        channel.publish(nodeId, hotKeyDetector.list());
+    }
+
+    /**
+     * 汇总所有节点的上报，计算全局 Top K 并预热
+     */
+    public List<Item> aggregate() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (List<Item> report : channel.collect()) {
+            for (Item item : report) {
+                counts.merge(item.key(), item.count(), Integer::sum);
+            }
+        }
+        List<Item> global = new ArrayList<>();
+        counts.forEach((key, count) -> {
+            if (count >= minCount) {
+                global.add(new Item(key, count));
+            }
+        });
+        global.sort((a, b) -> Integer.compare(b.count(), a.count()));
+        List<Item> topK = List.copyOf(global.subList(0, Math.min(k, global.size())));
+
+        Set<String> hotKeys = new HashSet<>(topK.size() * 2);
+        for (Item item : topK) {
+            hotKeys.add(item.key());
+        }
+        this.globalHotKeys = hotKeys;
+        if (!topK.isEmpty()) {
+            warmer.accept(topK);
+        }
+        return topK;
+    }
+
+    /**
+     * 上报后立即聚合
+     */
+    public void tick() {
+        publish();
+        aggregate();
+    }
+
+    /**
+     * 是否为最近一次聚合得到的全局热 Key
+     */
+    public boolean isGlobalHot(String key) {
+        return globalHotKeys.contains(key);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
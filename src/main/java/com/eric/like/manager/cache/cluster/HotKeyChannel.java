@@ -0,0 +1,22 @@
+package com.eric.like.manager.cache.cluster;
+
+import com.eric.like.manager.cache.Item;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 集群热 Key 上报通道
+ */
+public interface HotKeyChannel {
+
+    /**
+     * 上报本节点的 Top K，覆盖该节点上一次的上报
+     */
+    void publish(String nodeId, List<Item> items);
+
+    /**
+     * 获取所有存活节点最近一次的上报
+     */
+    Collection<List<Item>> collect();
+}
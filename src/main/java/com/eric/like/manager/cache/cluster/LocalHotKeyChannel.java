@@ -0,0 +1,27 @@
+package com.eric.like.manager.cache.cluster;
+
+import com.eric.like.manager.cache.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内的上报通道，用于单机多实例测试
+ */
+public class LocalHotKeyChannel implements HotKeyChannel {
+
+    private final Map<String, List<Item>> reports = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String nodeId, List<Item> items) {
+        reports.put(nodeId, List.copyOf(items));
+    }
+
+    @Override
+    public Collection<List<Item>> collect() {
+        return new ArrayList<>(reports.values());
+    }
+}
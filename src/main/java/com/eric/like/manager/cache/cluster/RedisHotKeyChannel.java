@@ -0,0 +1,82 @@
+package com.eric.like.manager.cache.cluster;
+
+import com.eric.like.constant.CacheConstant;
+import com.eric.like.manager.cache.Item;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 基于 Redis 的上报通道
+ * 每个节点把自己的 Top K 整体覆盖写入 hotkey:node:{nodeId}，并在 hotkey:nodes 中登记上报时间，
+ * 超过 ttl 没有上报的节点视为下线
+ */
+public class RedisHotKeyChannel implements HotKeyChannel {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final Duration ttl;
+
+    public RedisHotKeyChannel(RedisTemplate<String, Object> redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public void publish(String nodeId, List<Item> items) {
+        String nodeKey = CacheConstant.HOT_KEY_NODE_KEY_PREFIX.formatted(nodeId);
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>(items.size() * 2);
+        for (Item item : items) {
+            tuples.add(new DefaultTypedTuple<>(item.key(), (double) item.count()));
+        }
+        long now = System.currentTimeMillis();
+        // 事务内完成覆盖写，避免聚合方读到删了一半的数据
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                operations.multi();
+                operations.delete(nodeKey);
+                if (!tuples.isEmpty()) {
+                    operations.opsForZSet().add(nodeKey, tuples);
+                    operations.expire(nodeKey, ttl);
+                }
+                operations.opsForZSet().add(CacheConstant.HOT_KEY_NODES_KEY, nodeId, now);
+                operations.opsForZSet().removeRangeByScore(CacheConstant.HOT_KEY_NODES_KEY, 0, now - ttl.toMillis());
+                return operations.exec();
+            }
+        });
+    }
+
+    @Override
+    public Collection<List<Item>> collect() {
+        long now = System.currentTimeMillis();
+        Set<Object> nodeIds = redisTemplate.opsForZSet()
+                .rangeByScore(CacheConstant.HOT_KEY_NODES_KEY, now - ttl.toMillis(), Double.MAX_VALUE);
+        if (nodeIds == null || nodeIds.isEmpty()) {
+            return List.of();
+        }
+        List<List<Item>> reports = new ArrayList<>(nodeIds.size());
+        for (Object nodeId : nodeIds) {
+            Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet()
+                    .rangeWithScores(CacheConstant.HOT_KEY_NODE_KEY_PREFIX.formatted(nodeId), 0, -1);
+            if (tuples == null || tuples.isEmpty()) {
+                continue;
+            }
+            List<Item> items = new ArrayList<>(tuples.size());
+            for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+                if (tuple.getValue() != null && tuple.getScore() != null) {
+                    items.add(new Item(tuple.getValue().toString(), tuple.getScore().intValue()));
+                }
+            }
+            reports.add(items);
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,90 @@
+package com.eric.like.manager.cache.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 跨节点的本地缓存失效总线
+ * 写入方把变更的 key 放进待发送集合，同一个 key 在一个批次内只发一次；
+ * 每隔 flushInterval 或攒够 maxBatchSize 个 key 发送一条消息，其他节点收到后删除本地缓存
+ */
+@Slf4j
+public class CacheInvalidationBus implements AutoCloseable {
+
+    private final String nodeId;
+
+    private final CacheInvalidationChannel channel;
+
+    private final int maxBatchSize;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    // 单线程发送，定时任务和攒满触发的发送不会并发
+    private final ScheduledExecutorService flusher;
+
+    public CacheInvalidationBus(String nodeId, CacheInvalidationChannel channel, Duration flushInterval,
+                                int maxBatchSize, Consumer<String> invalidator) {
+        this.nodeId = nodeId;
+        this.channel = channel;
+        this.maxBatchSize = maxBatchSize;
+        channel.subscribe(message -> {
+            if (nodeId.equals(message.getNodeId()) || message.getKeys() == null) {
+                return;
+            }
+            message.getKeys().forEach(invalidator);
+        });
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("cache-invalidation-flusher").factory());
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 登记一个已变更的 key
+     */
+    public void publish(String key) {
+        if (pending.add(key) && pending.size() >= maxBatchSize) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * 发送所有待发送的 key
+     */
+    public void flush() {
+        try {
+            List<String> batch = new ArrayList<>();
+            Iterator<String> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                iterator.remove();
+                if (batch.size() >= maxBatchSize) {
+                    channel.publish(new CacheInvalidationMessage(nodeId, batch));
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                channel.publish(new CacheInvalidationMessage(nodeId, batch));
+            }
+        } catch (Exception e) {
+            // 发送失败的 key 依靠本地缓存过期兜底
+            log.error("缓存失效消息发送失败", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,13 @@
+package com.eric.like.manager.cache.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * 本地缓存失效广播通道
+ */
+public interface CacheInvalidationChannel {
+
+    void publish(CacheInvalidationMessage message);
+
+    void subscribe(Consumer<CacheInvalidationMessage> listener);
+}
@@ -0,0 +1,28 @@
+package com.eric.like.manager.cache.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 本地缓存失效消息，一条消息携带一个节点在一个批次内合并后的所有 key
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationMessage implements Serializable {
+
+    /**
+     * 发送节点，节点收到自己发出的消息时忽略
+     */
+    private String nodeId;
+
+    /**
+     * 失效的缓存 key 名（hashKey:field 或 userId:blogId）
+     */
+    private List<String> keys;
+
+}
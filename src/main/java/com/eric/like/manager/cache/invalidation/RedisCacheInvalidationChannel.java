@@ -0,0 +1,43 @@
+package com.eric.like.manager.cache.invalidation;
+
+import com.eric.like.constant.CacheConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.function.Consumer;
+
+/**
+ * 基于 Redis pub/sub 的广播通道
+ */
+@Slf4j
+public class RedisCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisCacheInvalidationChannel(RedisTemplate<String, Object> redisTemplate,
+                                         RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        redisTemplate.convertAndSend(CacheConstant.CACHE_INVALIDATION_CHANNEL, message);
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (body instanceof CacheInvalidationMessage invalidationMessage) {
+                listener.accept(invalidationMessage);
+            } else {
+                log.warn("无法识别的缓存失效消息: {}", body);
+            }
+        }, new ChannelTopic(CacheConstant.CACHE_INVALIDATION_CHANNEL));
+    }
+}
@@ -0,0 +1,122 @@
+package com.eric.like.manager.counter;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.eric.like.mapper.BlogMapper;
+import com.eric.like.mapper.BlogThumbShardMapper;
+import com.eric.like.model.entity.Blog;
+import com.eric.like.model.entity.BlogThumbShard;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 博客点赞数的写入入口
+ * 开启分片后增量随机写入 blog_thumb_shard 的某个分片，由 fold() 定期汇总到 blog.thumbCount；
+ * 未开启时直接更新 blog 表
+ */
+@Component
+public class BlogThumbCounter {
+
+    @Resource
+    private BlogMapper blogMapper;
+
+    @Resource
+    private BlogThumbShardMapper blogThumbShardMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${thumb.counter.sharded:false}")
+    private boolean sharded;
+
+    @Value("${thumb.counter.shard-count:16}")
+    private int shardCount;
+
+    /**
+     * 单篇博客的点赞数变化，博客不存在时返回 false
+     */
+    public boolean add(long blogId, long delta) {
+        if (!sharded) {
+            return blogMapper.update(new LambdaUpdateWrapper<Blog>()
+                    .eq(Blog::getId, blogId)
+                    .setSql("thumbCount = thumbCount + " + delta)) > 0;
+        }
+        // 分片写入不会因为博客不存在而失败，先确认博客存在
+        if (!blogMapper.exists(new LambdaQueryWrapper<Blog>().eq(Blog::getId, blogId))) {
+            return false;
+        }
+        blogThumbShardMapper.batchAddDelta(List.of(randomShard(blogId, delta)));
+        return true;
+    }
+
+    /**
+     * 批量的点赞数变化：blogId -> 增量
+     */
+    public void addAll(Map<Long, Long> countMap) {
+        Map<Long, Long> deltas = new TreeMap<>(countMap);
+        deltas.values().removeIf(delta -> delta == null || delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (!sharded) {
+            blogMapper.batchUpdateThumbCount(deltas);
+            return;
+        }
+        List<BlogThumbShard> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((blogId, delta) -> rows.add(randomShard(blogId, delta)));
+        blogThumbShardMapper.batchAddDelta(rows);
+    }
+
+    /**
+     * 尚未汇总到 blog 表的增量，读取点赞数时与 blog.thumbCount 相加
+     */
+    public Map<Long, Long> pendingDeltas(Collection<Long> blogIds) {
+        if (!sharded || blogIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> result = new HashMap<>();
+        for (BlogThumbShard row : blogThumbShardMapper.sumDeltaByBlogIds(blogIds)) {
+            result.put(row.getBlogId(), row.getDelta());
+        }
+        return result;
+    }
+
+    /**
+     * 汇总一批分片到 blog 表：在一个事务里加到 thumbCount 上，再从分片中减去同样的值，
+     * 期间并发写入分片的增量不受影响，留给下一次汇总；返回本次处理的分片数
+     */
+    public int fold(int limit) {
+        List<BlogThumbShard> rows = new ArrayList<>(blogThumbShardMapper.selectPending(limit));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // 固定加锁顺序，避免和其他汇总事务死锁
+        rows.sort(Comparator.comparing(BlogThumbShard::getBlogId).thenComparing(BlogThumbShard::getShard));
+        Map<Long, Long> countMap = new TreeMap<>();
+        for (BlogThumbShard row : rows) {
+            countMap.merge(row.getBlogId(), row.getDelta(), Long::sum);
+        }
+        countMap.values().removeIf(delta -> delta == 0);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!countMap.isEmpty()) {
+                blogMapper.batchUpdateThumbCount(countMap);
+            }
+            blogThumbShardMapper.batchSubtractDelta(rows);
+        });
+        return rows.size();
+    }
+
+    public boolean isSharded() {
+        return sharded;
+    }
+
+    private BlogThumbShard randomShard(long blogId, long delta) {
+        return new BlogThumbShard(blogId, ThreadLocalRandom.current().nextInt(shardCount), delta);
+    }
+
+}
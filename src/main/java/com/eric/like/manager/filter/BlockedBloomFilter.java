@@ -0,0 +1,122 @@
+package com.eric.like.manager.filter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * (k1, k2) 二元 key 的分块布隆过滤器
+ * 位数组按 512 位（8 个 long，一条缓存行）分块，一个 key 的所有位落在同一块内，查询只访问一条缓存行；
+ * 置位走 CAS，可并发写入；不支持删除，取消点赞后的残留位只会造成误判回源，由定期重建清理。
+ * 哈希拆成 块哈希、h1、h2 三个 32 位无符号数，Redis 里的 Lua 脚本按同样的规则定位，
+ * 重建时在内存中构建，再按 Redis 位图的字节序整体上传
+ */
+public class BlockedBloomFilter {
+
+    private static final int BLOCK_LONGS = 8;
+    private static final int BLOCK_BITS = BLOCK_LONGS * Long.SIZE;
+    private static final int MAX_HASHES = 16;
+    // Redis 位图最多 2^32 位
+    private static final int MAX_BLOCKS = 1 << 23;
+    private final int blockCount;
+    private final int hashCount;
+    private final AtomicLongArray bits;
+
+    /**
+     * @param expectedInsertions 预计写入数量
+     * @param fpp                期望误判率
+     */
+    public BlockedBloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long bitCount = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.blockCount = (int) Math.max(1, Math.min(MAX_BLOCKS, (bitCount + BLOCK_BITS - 1) / BLOCK_BITS));
+        long totalBits = (long) blockCount * BLOCK_BITS;
+        this.hashCount = (int) Math.max(1, Math.min(MAX_HASHES, Math.round((double) totalBits / n * Math.log(2))));
+        this.bits = new AtomicLongArray(blockCount * BLOCK_LONGS);
+    }
+
+    public void put(long k1, long k2) {
+        long[] hashes = hashes(k1, k2);
+        int base = (int) (hashes[0] % blockCount) * BLOCK_LONGS;
+        int h1 = (int) hashes[1];
+        int h2 = (int) hashes[2];
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            int index = base + (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = bits.get(index)) & mask) == 0
+                    && !bits.compareAndSet(index, current, current | mask)) {
+                // CAS 失败重试
+            }
+        }
+    }
+
+    /**
+     * 返回 false 表示一定不存在
+     */
+    public boolean mightContain(long k1, long k2) {
+        long[] hashes = hashes(k1, k2);
+        int base = (int) (hashes[0] % blockCount) * BLOCK_LONGS;
+        int h1 = (int) hashes[1];
+        int h2 = (int) hashes[2];
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((bits.get(base + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return (long) blockCount * BLOCK_BITS;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    /**
+     * 按 Redis 位图的寻址输出：第 i 位在第 i / 8 个字节、从高位数第 i % 8 位，和 SETBIT / GETBIT 一致
+     */
+    public byte[] toRedisBitmap() {
+        byte[] bytes = new byte[bits.length() * Long.BYTES];
+        for (int i = 0; i < bits.length(); i++) {
+            long word = bits.get(i);
+            for (int j = 0; j < Long.BYTES; j++) {
+                bytes[i * Long.BYTES + j] = (byte) (Integer.reverse((int) (word >>> (j * 8)) & 0xFF) >>> 24);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 块哈希、h1、h2，均为 32 位无符号数；块下标用再混淆一次的哈希，和块内位置相互独立。
+     * 32 位以内的数在 Lua 的 double 里可以精确运算，且 2^32 是 512 的倍数，(h1 + i * h2) % 512 与 int 溢出后取低 9 位一致
+     */
+    public static long[] hashes(long k1, long k2) {
+        long hash = hash(k1, k2);
+        return new long[]{
+                mix64(hash) >>> 32,
+                hash & 0xFFFFFFFFL,
+                ((hash >>> 32) | 1) & 0xFFFFFFFFL
+        };
+    }
+
+    private static long hash(long k1, long k2) {
+        return mix64(mix64(k1) ^ (k2 * 0x9E3779B97F4A7C15L));
+    }
+
+    /**
+     * MurmurHash3 的 fmix64 混淆步骤
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+}
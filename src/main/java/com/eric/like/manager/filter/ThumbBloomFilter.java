@@ -0,0 +1,196 @@
+package com.eric.like.manager.filter;
+
+import cn.hutool.core.collection.CollUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.eric.like.config.ThumbFilterProperties;
+import com.eric.like.constant.RedisLuaScriptConstant;
+import com.eric.like.constant.ThumbConstant;
+import com.eric.like.mapper.ThumbMapper;
+import com.eric.like.model.entity.Thumb;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 点赞关系过滤器，用于在 Redis 未命中时判断"一定没点过赞"，避免回源 MySQL
+ * 位图存放在 Redis，所有节点共用：点赞记录写入 thumb 表的各条路径（同步点赞、组提交、MQ 消费、临时数据同步）都会置位，
+ * 取消点赞不处理（只会多一次回源）。Redis 中还没有过滤器时，启动后异步从 thumb 表按 id 分页构建一次，
+ * 可按配置每天重建；重建期间的置位同时写入新位图。过滤器就绪前所有查询都视为可能存在，由调用方正常回源
+ */
+@Component
+@Slf4j
+public class ThumbBloomFilter implements SmartInitializingSingleton {
+
+    // 上传位图时每条 SETRANGE 的字节数
+    private static final int UPLOAD_CHUNK_BYTES = 1 << 20;
+
+    private static final List<String> ADD_KEYS = List.of(
+            ThumbConstant.FILTER_META_KEY, ThumbConstant.FILTER_BITS_KEY, ThumbConstant.FILTER_BUILDING_KEY);
+
+    private static final List<String> CHECK_KEYS = List.of(ThumbConstant.FILTER_META_KEY, ThumbConstant.FILTER_BITS_KEY);
+
+    @Resource
+    private ThumbMapper thumbMapper;
+
+    @Resource
+    private ThumbFilterProperties thumbFilterProperties;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final String lockToken = UUID.randomUUID().toString();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (thumbFilterProperties.isEnabled()) {
+            Thread.ofVirtual().name("thumb-filter-rebuild").start(() -> {
+                if (!Boolean.TRUE.equals(stringRedisTemplate.opsForHash().hasKey(ThumbConstant.FILTER_META_KEY, "blocks"))) {
+                    rebuild();
+                }
+            });
+        }
+    }
+
+    public void add(long userId, long blogId) {
+        if (!thumbFilterProperties.isEnabled()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(3);
+        appendHashArgs(userId, blogId, args);
+        stringRedisTemplate.execute(RedisLuaScriptConstant.FILTER_ADD_SCRIPT, ADD_KEYS, args.toArray());
+    }
+
+    /**
+     * 一批点赞记录一次脚本调用
+     */
+    public void addAll(Collection<Thumb> thumbs) {
+        if (!thumbFilterProperties.isEnabled() || CollUtil.isEmpty(thumbs)) {
+            return;
+        }
+        List<String> args = new ArrayList<>(thumbs.size() * 3);
+        for (Thumb thumb : thumbs) {
+            appendHashArgs(thumb.getUserId(), thumb.getBlogId(), args);
+        }
+        stringRedisTemplate.execute(RedisLuaScriptConstant.FILTER_ADD_SCRIPT, ADD_KEYS, args.toArray());
+    }
+
+    /**
+     * 返回 false 表示用户一定没有点赞过该博客
+     */
+    public boolean mightContain(long userId, long blogId) {
+        if (!thumbFilterProperties.isEnabled()) {
+            return true;
+        }
+        List<String> args = new ArrayList<>(3);
+        appendHashArgs(userId, blogId, args);
+        Long result = stringRedisTemplate.execute(RedisLuaScriptConstant.FILTER_CHECK_SCRIPT, CHECK_KEYS, args.toArray());
+        return result == null || result != 0;
+    }
+
+    // 每天凌晨重建，清理取消点赞留下的残留位
+    @Scheduled(cron = "${thumb.filter.rebuild-cron:0 30 3 * * ?}")
+    public void scheduledRebuild() {
+        if (thumbFilterProperties.isEnabled() && thumbFilterProperties.isRebuildEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 按 id 顺序分页扫描 thumb 表，在内存中构建后上传到 Redis，并入重建期间的置位后整体替换；
+     * 多个节点同时触发时只有拿到重建锁的节点执行
+     */
+    public void rebuild() {
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(
+                ThumbConstant.FILTER_LOCK_KEY, lockToken, thumbFilterProperties.getRebuildLockTtl());
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        boolean swapped = false;
+        try {
+            // 按当前数据量留出余量，避免下一次重建前写满
+            long rows = thumbMapper.selectCount(null);
+            long expected = Math.max(thumbFilterProperties.getExpectedInsertions(), rows + rows / 2);
+            BlockedBloomFilter filter = new BlockedBloomFilter(expected, thumbFilterProperties.getFpp());
+            // 先登记新位图，扫描期间写入的点赞同时置位到新位图
+            stringRedisTemplate.execute(RedisLuaScriptConstant.FILTER_BEGIN_REBUILD_SCRIPT,
+                    List.of(ThumbConstant.FILTER_META_KEY, ThumbConstant.FILTER_BUILDING_KEY, ThumbConstant.FILTER_UPLOAD_KEY),
+                    String.valueOf(filter.blockCount()), String.valueOf(filter.hashCount()));
+
+            int pageSize = thumbFilterProperties.getPageSize();
+            long lastId = Long.MIN_VALUE;
+            long loaded = 0;
+            while (true) {
+                List<Thumb> page = thumbMapper.selectList(new LambdaQueryWrapper<Thumb>()
+                        .select(Thumb::getId, Thumb::getUserId, Thumb::getBlogId)
+                        .gt(Thumb::getId, lastId)
+                        .orderByAsc(Thumb::getId)
+                        .last("limit " + pageSize));
+                for (Thumb thumb : page) {
+                    filter.put(thumb.getUserId(), thumb.getBlogId());
+                }
+                loaded += page.size();
+                if (page.size() < pageSize) {
+                    break;
+                }
+                lastId = page.getLast().getId();
+            }
+
+            upload(filter.toRedisBitmap());
+            Long result = stringRedisTemplate.execute(RedisLuaScriptConstant.FILTER_SWAP_SCRIPT,
+                    List.of(ThumbConstant.FILTER_META_KEY, ThumbConstant.FILTER_BITS_KEY,
+                            ThumbConstant.FILTER_BUILDING_KEY, ThumbConstant.FILTER_UPLOAD_KEY));
+            swapped = Long.valueOf(1).equals(result);
+            log.info("点赞过滤器重建完成，记录数 {}，位数 {}，哈希数 {}，耗时 {}ms",
+                    loaded, filter.bitSize(), filter.hashCount(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("点赞过滤器重建失败", e);
+        } finally {
+            if (!swapped) {
+                // 失败时撤销新位图，当前位图不受影响
+                stringRedisTemplate.opsForHash().delete(ThumbConstant.FILTER_META_KEY, "buildingBlocks", "buildingHashes");
+                stringRedisTemplate.delete(List.of(ThumbConstant.FILTER_BUILDING_KEY, ThumbConstant.FILTER_UPLOAD_KEY));
+            }
+            stringRedisTemplate.execute(RedisLuaScriptConstant.RELEASE_LOCK_SCRIPT,
+                    List.of(ThumbConstant.FILTER_LOCK_KEY), lockToken);
+        }
+    }
+
+    /**
+     * 分块 SETRANGE 上传，避免单条命令过大
+     */
+    private void upload(byte[] bitmap) {
+        byte[] key = ThumbConstant.FILTER_UPLOAD_KEY.getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+            uploadChunks(connection, key, bitmap);
+            return null;
+        });
+    }
+
+    private static void uploadChunks(RedisConnection connection, byte[] key, byte[] bitmap) {
+        connection.keyCommands().del(key);
+        for (int offset = 0; offset < bitmap.length; offset += UPLOAD_CHUNK_BYTES) {
+            byte[] chunk = Arrays.copyOfRange(bitmap, offset, Math.min(bitmap.length, offset + UPLOAD_CHUNK_BYTES));
+            connection.stringCommands().setRange(key, chunk, offset);
+        }
+    }
+
+    private static void appendHashArgs(long userId, long blogId, List<String> args) {
+        for (long hash : BlockedBloomFilter.hashes(userId, blogId)) {
+            args.add(String.valueOf(hash));
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.eric.like.manager.lock;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 按 key 分条带的锁表
+ * 固定数量的 ReentrantLock，key 哈希到其中一把，内存占用有上限，不会像 String.intern() 那样随用户数增长；
+ * ReentrantLock 阻塞时不会钉住虚拟线程的载体线程；不同 key 可能落到同一把锁上，只影响并发度、不影响正确性
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final long timeoutNanos;
+
+    /**
+     * @param stripes 锁数量，会向上取到 2 的幂
+     * @param timeout 获取锁的最长等待时间，为 0 时一直等待
+     */
+    public StripedLock(int stripes, Duration timeout) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public ReentrantLock get(long key) {
+        return locks[index(key)];
+    }
+
+    /**
+     * 持有 key 对应的锁执行，超时未获取到锁时抛出异常
+     */
+    public <T> T execute(long key, Supplier<T> action) {
+        ReentrantLock lock = get(key);
+        acquire(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(ReentrantLock lock) {
+        if (timeoutNanos <= 0) {
+            lock.lock();
+            return;
+        }
+        try {
+            if (!lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new RuntimeException("操作过于频繁，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("获取锁被中断");
+        }
+    }
+
+    private int index(long key) {
+        // fmix64，连续的 id 也能均匀分散
+        long z = key;
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (z ^ (z >>> 33)) & mask;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.eric.like.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.eric.like.model.entity.BlogThumbShard;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BlogThumbShardMapper extends BaseMapper<BlogThumbShard> {
+
+    /**
+     * 累加分片增量，分片不存在时插入
+     */
+    void batchAddDelta(@Param("rows") List<BlogThumbShard> rows);
+
+    /**
+     * 按博客汇总尚未合并的增量，shard 字段不使用
+     */
+    List<BlogThumbShard> sumDeltaByBlogIds(@Param("blogIds") Collection<Long> blogIds);
+
+    /**
+     * 取出增量不为 0 的分片
+     */
+    List<BlogThumbShard> selectPending(@Param("limit") int limit);
+
+    /**
+     * 从分片中减去已合并的增量，期间新写入的增量保留
+     */
+    void batchSubtractDelta(@Param("rows") List<BlogThumbShard> rows);
+}
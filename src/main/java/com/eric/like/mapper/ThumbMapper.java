@@ -2,12 +2,20 @@ package com.eric.like.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.eric.like.model.entity.Thumb;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * @author pine
  */
 public interface ThumbMapper extends BaseMapper<Thumb> {
 
+    /**
+     * 按 (userId, blogId) 行构造器 IN 删除点赞记录，只用 userId、blogId 两个字段，调用方控制单次条数
+     */
+    int deleteByUserBlogPairs(@Param("pairs") List<Thumb> pairs);
+
 }
 
 
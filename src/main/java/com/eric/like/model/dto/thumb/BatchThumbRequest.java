@@ -0,0 +1,29 @@
+package com.eric.like.model.dto.thumb;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量点赞 / 取消点赞请求
+ */
+@Data
+public class BatchThumbRequest {
+
+    /**
+     * 按顺序执行的操作
+     */
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+
+        private Long blogId;
+
+        /**
+         * 1 点赞，-1 取消点赞，取值同 ThumbTypeEnum
+         */
+        private Integer type;
+    }
+
+}
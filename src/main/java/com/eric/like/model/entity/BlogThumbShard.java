@@ -0,0 +1,38 @@
+package com.eric.like.model.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 博客点赞数分片表实体类
+ * 点赞数增量随机写入某个分片，后台任务定期汇总到 blog.thumbCount，热门博客的写入不再集中在一行上
+ * <pre>
+ * create table if not exists blog_thumb_shard
+ * (
+ *     blogId bigint           not null,
+ *     shard  int              not null,
+ *     delta  bigint default 0 not null,
+ *     primary key (blogId, shard)
+ * );
+ * </pre>
+ */
+@TableName(value = "blog_thumb_shard")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlogThumbShard {
+
+    private Long blogId;
+
+    /**
+     * 分片号
+     */
+    private Integer shard;
+
+    /**
+     * 尚未汇总到 blog 表的点赞数增量
+     */
+    private Long delta;
+}
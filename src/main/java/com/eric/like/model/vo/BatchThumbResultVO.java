@@ -0,0 +1,37 @@
+package com.eric.like.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量点赞中单条操作的结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchThumbResultVO {
+
+    private Long blogId;
+
+    /**
+     * 1 点赞，-1 取消点赞
+     */
+    private Integer type;
+
+    private Boolean success;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+
+    public static BatchThumbResultVO success(Long blogId, Integer type) {
+        return new BatchThumbResultVO(blogId, type, true, null);
+    }
+
+    public static BatchThumbResultVO fail(Long blogId, Integer type, String message) {
+        return new BatchThumbResultVO(blogId, type, false, message);
+    }
+
+}
@@ -1,10 +1,14 @@
 package com.eric.like.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.eric.like.model.dto.thumb.BatchThumbRequest;
 import com.eric.like.model.dto.thumb.DoThumbRequest;
 import com.eric.like.model.entity.Thumb;
+import com.eric.like.model.vo.BatchThumbResultVO;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.util.List;
+
 public interface ThumbService extends IService<Thumb> {
 
     /**
@@ -17,6 +21,11 @@ public interface ThumbService extends IService<Thumb> {
      */
     Boolean undoThumb(DoThumbRequest doThumbRequest, HttpServletRequest request);
 
+    /**
+     * 批量点赞 / 取消点赞，按顺序执行，返回每条操作的结果
+     */
+    List<BatchThumbResultVO> batchThumb(BatchThumbRequest batchThumbRequest, HttpServletRequest request);
+
     Boolean hasThumb(Long blogId, Long userId);
 
 }
@@ -0,0 +1,61 @@
+package com.eric.like.service.impl;
+
+import com.eric.like.model.dto.thumb.BatchThumbRequest;
+import com.eric.like.model.enums.LuaStatusEnum;
+import com.eric.like.model.enums.ThumbTypeEnum;
+import com.eric.like.model.vo.BatchThumbResultVO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量点赞的公共逻辑：校验单条操作、拼装脚本参数、按请求顺序组装结果
+ */
+final class BatchThumbSupport {
+
+    private BatchThumbSupport() {
+    }
+
+    static boolean isValid(BatchThumbRequest.Item item) {
+        return item.getBlogId() != null && item.getType() != null
+                && (item.getType() == ThumbTypeEnum.INCR.getValue() || item.getType() == ThumbTypeEnum.DECR.getValue());
+    }
+
+    /**
+     * 合法的操作按 博客 ID、操作类型 成对追加到脚本参数后面
+     */
+    static List<BatchThumbRequest.Item> appendArgs(List<BatchThumbRequest.Item> items, List<Object> args) {
+        List<BatchThumbRequest.Item> validItems = new ArrayList<>(items.size());
+        for (BatchThumbRequest.Item item : items) {
+            if (isValid(item)) {
+                validItems.add(item);
+                args.add(item.getBlogId());
+                args.add(item.getType());
+            }
+        }
+        return validItems;
+    }
+
+    /**
+     * 按请求顺序组装结果，脚本结果只对应合法的操作
+     */
+    static List<BatchThumbResultVO> toResults(List<BatchThumbRequest.Item> items, List<?> luaResults) {
+        List<BatchThumbResultVO> results = new ArrayList<>(items.size());
+        int next = 0;
+        for (BatchThumbRequest.Item item : items) {
+            if (!isValid(item)) {
+                results.add(BatchThumbResultVO.fail(item.getBlogId(), item.getType(), "参数错误"));
+                continue;
+            }
+            long result = ((Number) luaResults.get(next++)).longValue();
+            if (LuaStatusEnum.SUCCESS.getValue() == result) {
+                results.add(BatchThumbResultVO.success(item.getBlogId(), item.getType()));
+            } else {
+                results.add(BatchThumbResultVO.fail(item.getBlogId(), item.getType(),
+                        item.getType() == ThumbTypeEnum.INCR.getValue() ? "用户已点赞" : "用户未点赞"));
+            }
+        }
+        return results;
+    }
+
+}
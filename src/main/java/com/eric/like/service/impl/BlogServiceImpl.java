@@ -4,6 +4,8 @@ import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.ObjUtil;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.eric.like.constant.ThumbConstant;
+import com.eric.like.manager.cache.CacheManager;
+import com.eric.like.manager.counter.BlogThumbCounter;
 import com.eric.like.mapper.BlogMapper;
 import com.eric.like.model.entity.Blog;
 import com.eric.like.model.entity.User;
@@ -14,7 +16,6 @@ import com.eric.like.service.UserService;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -31,7 +32,10 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
     private ThumbService thumbService;
 
     @Resource
-    private RedisTemplate<String, Object> redisTemplate;
+    private CacheManager cacheManager;
+
+    @Resource
+    private BlogThumbCounter blogThumbCounter;
 
     @Override
     public BlogVO getBlogVoById(Long id, HttpServletRequest request) {
@@ -43,6 +47,11 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
     private BlogVO getBlogVO(Blog blog, User loginUser) {
         BlogVO blogVO = new BlogVO();
         BeanUtil.copyProperties(blog, blogVO);
+        // 加上尚未汇总的分片增量
+        Long pending = blogThumbCounter.pendingDeltas(List.of(blog.getId())).get(blog.getId());
+        if (pending != null) {
+            blogVO.setThumbCount((int) (Objects.requireNonNullElse(blogVO.getThumbCount(), 0) + pending));
+        }
 
         if (loginUser == null) {
             return blogVO;
@@ -59,21 +68,30 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
         User loginUser = userService.getLoginUser(request);
         Map<Long, Boolean> blogIdHasThumbMap = new HashMap<>();
         if (ObjUtil.isNotEmpty(loginUser)) {
-            List<Object> blogIdList = blogList.stream().map(blog -> blog.getId().toString()).collect(Collectors.toList());
-            // 获取点赞
-            List<Object> thumbList = redisTemplate.opsForHash().multiGet(ThumbConstant.USER_THUMB_KEY_PREFIX + loginUser.getId(), blogIdList);
+            List<Long> blogIdList = blogList.stream().map(Blog::getId).collect(Collectors.toList());
+            // 获取点赞：热点用户的点赞状态走本地缓存，其余合并成一次 HMGET；
+            // 各 ThumbService 写入 Redis 后都会通过 putIfPresent 更新本地缓存并广播失效，本地缓存不会比 Redis 旧
+            List<Object> thumbList = cacheManager.getAll(loginUser.getId(), blogIdList);
             for (int i = 0; i < thumbList.size(); i++) {
-                if(Objects.isNull(thumbList.get(i))){
+                // Redis 反序列化后可能是 Integer，按数值比较
+                Object value = thumbList.get(i);
+                if (!(value instanceof Number n) || n.longValue() == ThumbConstant.UN_THUMB_CONSTANT) {
                     continue;
                 }
-                blogIdHasThumbMap.put(Long.valueOf(blogIdList.get(i).toString()), true);
+                blogIdHasThumbMap.put(blogIdList.get(i), true);
             }
         }
 
+        // 尚未汇总的分片增量，一页一次查询
+        Map<Long, Long> pendingDeltas = blogThumbCounter.pendingDeltas(blogList.stream().map(Blog::getId).toList());
         return blogList.stream()
                 .map(blog -> {
                     BlogVO blogVO = BeanUtil.copyProperties(blog, BlogVO.class);
                     blogVO.setHasThumb(blogIdHasThumbMap.get(blog.getId()));
+                    Long pending = pendingDeltas.get(blog.getId());
+                    if (pending != null) {
+                        blogVO.setThumbCount((int) (Objects.requireNonNullElse(blogVO.getThumbCount(), 0) + pending));
+                    }
                     return blogVO;
                 })
                 .toList();
@@ -1,14 +1,20 @@
 package com.eric.like.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.eric.like.constant.ThumbConstant;
+import com.eric.like.manager.batch.ThumbGroupCommitter;
 import com.eric.like.manager.cache.CacheManager;
+import com.eric.like.manager.counter.BlogThumbCounter;
+import com.eric.like.manager.filter.ThumbBloomFilter;
+import com.eric.like.manager.lock.StripedLock;
 import com.eric.like.mapper.ThumbMapper;
+import com.eric.like.model.dto.thumb.BatchThumbRequest;
 import com.eric.like.model.dto.thumb.DoThumbRequest;
-import com.eric.like.model.entity.Blog;
 import com.eric.like.model.entity.Thumb;
 import com.eric.like.model.entity.User;
-import com.eric.like.service.BlogService;
+import com.eric.like.model.enums.ThumbTypeEnum;
+import com.eric.like.model.vo.BatchThumbResultVO;
 import com.eric.like.service.ThumbService;
 import com.eric.like.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,7 +24,11 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service("thumbServiceLocalCache")
 @Slf4j
@@ -27,8 +37,6 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
 
     private final UserService userService;
 
-    private final BlogService blogService;
-
     private final TransactionTemplate transactionTemplate;
 
     private final RedisTemplate<String, Object> redisTemplate;
@@ -36,6 +44,16 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
     // 引入缓存管理
     private final CacheManager cacheManager;
 
+    private final ThumbBloomFilter thumbBloomFilter;
+
+    // 用户级锁，同一用户的点赞 / 取消点赞串行执行
+    private final StripedLock thumbLock;
+
+    // 组提交，开启后点赞 / 取消点赞合并成批次写库
+    private final ThumbGroupCommitter thumbGroupCommitter;
+
+    private final BlogThumbCounter blogThumbCounter;
+
     @Override
     public Boolean doThumb(DoThumbRequest doThumbRequest, HttpServletRequest request) {
         if (doThumbRequest == null || doThumbRequest.getBlogId() == null) {
@@ -45,53 +63,11 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
         if (Objects.isNull(loginUser)) {
             throw new RuntimeException("用户未登录");
         }
-        // 加锁
-        synchronized (loginUser.getId().toString().intern()) {
-
-            // 编程式事务
-            return transactionTemplate.execute(status -> {
-                Long blogId = doThumbRequest.getBlogId();
-                //todo 缓存过期问题， 使用冷热分离的方法：
-                /**
-                     可以调整 value 的数据结构，比如调整为:
-                     ```json
-                     {
-                     "blogId":xxx,
-                     "expireTime":xxx
-                     }
-                     ```
-                     然后使用时在内存中判断是否过期，未过期就正常使用，如果过期，可以通过虚拟线程异步删除，或者通过消息队列删除
-                 */
-                //判斷是否已经点赞
-                Boolean exists = this.hasThumb(blogId, loginUser.getId());
-
-                if (exists) {
-                    throw new RuntimeException("用户已点赞");
-                }
-
-                //更新点赞数
-                boolean update = blogService.lambdaUpdate()
-                        .eq(Blog::getId, blogId)
-                        .setSql("thumbCount = thumbCount + 1")
-                        .update();
-
-                //保存点赞数据
-                Thumb thumb = new Thumb();
-                thumb.setUserId(loginUser.getId());
-                thumb.setBlogId(blogId);
-                // 更新成功才执行
-                boolean success = update && this.save(thumb);
-                // 点赞记录存入 Redis
-                if (success) {
-                    String hashKey = ThumbConstant.USER_THUMB_KEY_PREFIX + loginUser.getId();
-                    String fieldKey = blogId.toString();
-                    Long realThumbId = thumb.getId();
-                    redisTemplate.opsForHash().put(hashKey, fieldKey, realThumbId);
-                    cacheManager.putIfPresent(hashKey, fieldKey, realThumbId);
-                }
-                return success;
-            });
+        if (thumbGroupCommitter.isEnabled()) {
+            return thumbGroupCommitter.submit(loginUser.getId(), doThumbRequest.getBlogId(), true);
         }
+        // 加锁
+        return thumbLock.execute(loginUser.getId(), () -> thumb(loginUser.getId(), doThumbRequest.getBlogId()));
     }
 
     @Override
@@ -103,48 +79,158 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
         if (Objects.isNull(loginUser)) {
             throw new RuntimeException("用户未登录");
         }
+        if (thumbGroupCommitter.isEnabled()) {
+            return thumbGroupCommitter.submit(loginUser.getId(), doThumbRequest.getBlogId(), false);
+        }
         // 加锁
-        synchronized (loginUser.getId().toString().intern()) {
-
-            // 编程式事务
-            return transactionTemplate.execute(status -> {
-                Long blogId = doThumbRequest.getBlogId();
-                //判斷是否已经点赞
-                Long thumbId = ((Long) redisTemplate.opsForHash().get(ThumbConstant.USER_THUMB_KEY_PREFIX + loginUser.getId(), blogId.toString()));
-                if (thumbId == null) {
-                    throw new RuntimeException("用户未点赞");
-                }
-                Object thumbIdObj = cacheManager.get(ThumbConstant.USER_THUMB_KEY_PREFIX + loginUser.getId(), blogId.toString());
-                if (Objects.isNull(thumbIdObj) || ThumbConstant.UN_THUMB_CONSTANT.equals(thumbIdObj)) {
-                    throw new RuntimeException("用户未点赞");
-                }
-                // 更新点赞数
-                boolean update = blogService.lambdaUpdate()
-                        .eq(Blog::getId, blogId)
-                        .setSql("thumbCount = thumbCount - 1")
-                        .update();
-                // 删除点赞数据
-                boolean success = update && this.removeById(thumbId);
-                if (success) {
-                    String hashKey = ThumbConstant.USER_THUMB_KEY_PREFIX + loginUser.getId();
-                    String fieldKey = blogId.toString();
-                    redisTemplate.opsForHash().delete(hashKey, fieldKey);
-                    cacheManager.putIfPresent(hashKey, fieldKey, ThumbConstant.UN_THUMB_CONSTANT);
-                }
-                return success;
-            });
+        return thumbLock.execute(loginUser.getId(), () -> unthumb(loginUser.getId(), doThumbRequest.getBlogId()));
+    }
+
+    @Override
+    public List<BatchThumbResultVO> batchThumb(BatchThumbRequest batchThumbRequest, HttpServletRequest request) {
+        if (batchThumbRequest == null || CollUtil.isEmpty(batchThumbRequest.getItems())) {
+            throw new RuntimeException("参数错误");
+        }
+        List<BatchThumbRequest.Item> items = batchThumbRequest.getItems();
+        if (items.contains(null)) {
+            throw new RuntimeException("参数错误");
+        }
+        if (items.size() > ThumbConstant.BATCH_THUMB_MAX_SIZE) {
+            throw new RuntimeException("单次最多操作 " + ThumbConstant.BATCH_THUMB_MAX_SIZE + " 条");
         }
+        User loginUser = userService.getLoginUser(request);
+        if (Objects.isNull(loginUser)) {
+            throw new RuntimeException("用户未登录");
+        }
+        Long userId = loginUser.getId();
+        if (thumbGroupCommitter.isEnabled()) {
+            // 全部入队后再统一等待，整批通常落在同一次组提交里
+            List<CompletableFuture<Boolean>> futures = items.stream()
+                    .map(item -> BatchThumbSupport.isValid(item)
+                            ? thumbGroupCommitter.submitAsync(userId, item.getBlogId(), item.getType() == ThumbTypeEnum.INCR.getValue())
+                            : null)
+                    .toList();
+            List<BatchThumbResultVO> results = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                results.add(toResult(items.get(i), futures.get(i)));
+            }
+            return results;
+        }
+        // 整批只加一次锁，逐条执行，单条失败不影响其他
+        return thumbLock.execute(userId, () -> items.stream()
+                .map(item -> {
+                    if (!BatchThumbSupport.isValid(item)) {
+                        return BatchThumbResultVO.fail(item.getBlogId(), item.getType(), "参数错误");
+                    }
+                    try {
+                        boolean success = item.getType() == ThumbTypeEnum.INCR.getValue()
+                                ? thumb(userId, item.getBlogId())
+                                : unthumb(userId, item.getBlogId());
+                        return success
+                                ? BatchThumbResultVO.success(item.getBlogId(), item.getType())
+                                : BatchThumbResultVO.fail(item.getBlogId(), item.getType(), "操作失败");
+                    } catch (RuntimeException e) {
+                        return BatchThumbResultVO.fail(item.getBlogId(), item.getType(), e.getMessage());
+                    }
+                })
+                .toList());
+    }
+
+    private static BatchThumbResultVO toResult(BatchThumbRequest.Item item, CompletableFuture<Boolean> future) {
+        if (future == null) {
+            return BatchThumbResultVO.fail(item.getBlogId(), item.getType(), "参数错误");
+        }
+        try {
+            return Boolean.TRUE.equals(future.join())
+                    ? BatchThumbResultVO.success(item.getBlogId(), item.getType())
+                    : BatchThumbResultVO.fail(item.getBlogId(), item.getType(), "操作失败");
+        } catch (CompletionException e) {
+            return BatchThumbResultVO.fail(item.getBlogId(), item.getType(), e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 点赞，调用方需持有该用户的锁
+     */
+    private Boolean thumb(Long userId, Long blogId) {
+        // 编程式事务
+        return transactionTemplate.execute(status -> {
+            //todo 缓存过期问题， 使用冷热分离的方法：
+            /**
+                 可以调整 value 的数据结构，比如调整为:
+                 ```json
+                 {
+                 "blogId":xxx,
+                 "expireTime":xxx
+                 }
+                 ```
+                 然后使用时在内存中判断是否过期，未过期就正常使用，如果过期，可以通过虚拟线程异步删除，或者通过消息队列删除
+             */
+            //判斷是否已经点赞
+            Boolean exists = this.hasThumb(blogId, userId);
+
+            if (exists) {
+                throw new RuntimeException("用户已点赞");
+            }
+
+            //更新点赞数
+            boolean update = blogThumbCounter.add(blogId, 1);
+
+            //保存点赞数据
+            Thumb thumb = new Thumb();
+            thumb.setUserId(userId);
+            thumb.setBlogId(blogId);
+            // 更新成功才执行
+            boolean success = update && this.save(thumb);
+            // 点赞记录存入 Redis
+            if (success) {
+                String hashKey = ThumbConstant.USER_THUMB_KEY_PREFIX + userId;
+                String fieldKey = blogId.toString();
+                Long realThumbId = thumb.getId();
+                redisTemplate.opsForHash().put(hashKey, fieldKey, realThumbId);
+                cacheManager.putIfPresent(userId, blogId, realThumbId);
+                thumbBloomFilter.add(userId, blogId);
+            }
+            return success;
+        });
+    }
+
+    /**
+     * 取消点赞，调用方需持有该用户的锁
+     */
+    private Boolean unthumb(Long userId, Long blogId) {
+        // 编程式事务
+        return transactionTemplate.execute(status -> {
+            //判斷是否已经点赞
+            // 值经 Jackson 反序列化，较小的数字会是 Integer，统一按 Number 读取
+            Object thumbIdObj = redisTemplate.opsForHash().get(ThumbConstant.USER_THUMB_KEY_PREFIX + userId, blogId.toString());
+            if (!(thumbIdObj instanceof Number number) || number.longValue() == ThumbConstant.UN_THUMB_CONSTANT) {
+                throw new RuntimeException("用户未点赞");
+            }
+            Object cachedThumbId = cacheManager.get(userId, blogId);
+            if (!(cachedThumbId instanceof Number cached) || cached.longValue() == ThumbConstant.UN_THUMB_CONSTANT) {
+                throw new RuntimeException("用户未点赞");
+            }
+            long thumbId = number.longValue();
+            // 更新点赞数
+            boolean update = blogThumbCounter.add(blogId, -1);
+            // 删除点赞数据
+            boolean success = update && this.removeById(thumbId);
+            if (success) {
+                String hashKey = ThumbConstant.USER_THUMB_KEY_PREFIX + userId;
+                String fieldKey = blogId.toString();
+                redisTemplate.opsForHash().delete(hashKey, fieldKey);
+                cacheManager.putIfPresent(userId, blogId, ThumbConstant.UN_THUMB_CONSTANT);
+            }
+            return success;
+        });
     }
 
     @Override
     public Boolean hasThumb(Long blogId, Long userId) {
-        Object thumbIdObj = cacheManager.get(ThumbConstant.USER_THUMB_KEY_PREFIX + userId, blogId.toString()) != null;
-        if (Objects.isNull(thumbIdObj)) {
-            return false;
-        }
-        Long thumbId = (Long) thumbIdObj;
-        //规定： 当值为 0 时代表当前未点赞
-        return !Objects.equals(thumbId, ThumbConstant.UN_THUMB_CONSTANT);
+        Object thumbIdObj = cacheManager.get(userId, blogId);
+        //规定： 当值为 0 时代表当前未点赞；值可能被反序列化成 Integer，按 Number 比较
+        return thumbIdObj instanceof Number thumbId && thumbId.longValue() != ThumbConstant.UN_THUMB_CONSTANT;
     }
 
 }
@@ -1,15 +1,21 @@
 package com.eric.like.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.lang.Assert;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.eric.like.constant.RedisLuaScriptConstant;
+import com.eric.like.manager.cache.CacheManager;
+import com.eric.like.manager.filter.ThumbBloomFilter;
 import com.eric.like.constant.ThumbConstant;
 import com.eric.like.listener.thumb.msg.ThumbEvent;
 import com.eric.like.mapper.ThumbMapper;
+import com.eric.like.model.dto.thumb.BatchThumbRequest;
 import com.eric.like.model.dto.thumb.DoThumbRequest;
 import com.eric.like.model.entity.Thumb;
 import com.eric.like.model.entity.User;
 import com.eric.like.model.enums.LuaStatusEnum;
+import com.eric.like.model.enums.ThumbTypeEnum;
+import com.eric.like.model.vo.BatchThumbResultVO;
 import com.eric.like.service.ThumbService;
 import com.eric.like.service.UserService;
 import com.eric.like.util.RedisKeyUtil;
@@ -23,6 +29,7 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -35,6 +42,11 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb>
     private final UserService userService;
   
     private final RedisTemplate<String, Object> redisTemplate;
+
+    private final ThumbBloomFilter thumbBloomFilter;
+
+    // 写入后同步本机本地缓存并广播失效，其他节点的本地缓存下次回源 Redis
+    private final CacheManager cacheManager;
   
     private final PulsarTemplate<ThumbEvent> pulsarTemplate;
   
@@ -49,17 +61,19 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb>
         Long loginUserId = loginUser.getId();  
         Long blogId = doThumbRequest.getBlogId();  
         String userThumbKey = RedisKeyUtil.getUserThumbKey(loginUserId);
+        //todo 暂时传一个大于当前时间30天后的时间戳，待思考是否需要替换成博客的创建时间的30天的时间戳
+        long expireTime = Instant.now().plus(30, ChronoUnit.DAYS).toEpochMilli();
         // 执行 Lua 脚本，点赞存入 Redis  
         long result = redisTemplate.execute(  
                 RedisLuaScriptConstant.THUMB_SCRIPT_MQ,
                 List.of(userThumbKey),
                 blogId,
-                //todo 暂时传一个大于当前时间30天后的时间戳，待思考是否需要替换成博客的创建时间的30天的时间戳
-                Instant.now().plus(30, ChronoUnit.DAYS).toEpochMilli()
+                expireTime
         );  
         if (LuaStatusEnum.FAIL.getValue() == result) {
             throw new RuntimeException("用户已点赞");  
         }  
+        cacheManager.putIfPresent(loginUserId, blogId, expireTime);
   
         ThumbEvent thumbEvent = ThumbEvent.builder()  
                 .blogId(blogId)  
@@ -68,7 +82,8 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb>
                 .eventTime(LocalDateTime.now())
                 .build();  
         pulsarTemplate.sendAsync(ThumbConstant.THUMB_TOPIC, thumbEvent).exceptionally(ex -> {
-            redisTemplate.opsForHash().delete(userThumbKey, blogId.toString(), true);  
+            redisTemplate.opsForHash().delete(userThumbKey, blogId.toString());  
+            cacheManager.putIfPresent(loginUserId, blogId, ThumbConstant.UN_THUMB_CONSTANT);
             log.error("点赞事件发送失败: userId={}, blogId={}", loginUserId, blogId, ex);  
             return null;  
         });  
@@ -97,6 +112,7 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb>
         if (LuaStatusEnum.FAIL.getValue() == result) {  
             throw new RuntimeException("用户未点赞");  
         }  
+        cacheManager.putIfPresent(loginUserId, blogId, ThumbConstant.UN_THUMB_CONSTANT);
         ThumbEvent thumbEvent = ThumbEvent.builder()  
                 .blogId(blogId)  
                 .userId(loginUserId)  
@@ -104,7 +120,10 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb>
                 .eventTime(LocalDateTime.now())  
                 .build();  
         pulsarTemplate.sendAsync(ThumbConstant.THUMB_TOPIC, thumbEvent).exceptionally(ex -> {
-            redisTemplate.opsForHash().put(userThumbKey, blogId.toString(), true);  
+            // 回滚为已点赞，值与点赞时一致存过期时间，hasThumb 按 Long 读取
+            long expireTime = Instant.now().plus(30, ChronoUnit.DAYS).toEpochMilli();
+            redisTemplate.opsForHash().put(userThumbKey, blogId.toString(), expireTime);  
+            cacheManager.putIfPresent(loginUserId, blogId, expireTime);
             log.error("点赞事件发送失败: userId={}, blogId={}", loginUserId, blogId, ex);  
             return null;  
         });  
@@ -112,6 +131,67 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb>
         return true;  
     }  
   
+    @Override
+    public List<BatchThumbResultVO> batchThumb(BatchThumbRequest batchThumbRequest, HttpServletRequest request) {
+        if (batchThumbRequest == null || CollUtil.isEmpty(batchThumbRequest.getItems())) {
+            throw new RuntimeException("参数错误");
+        }
+        List<BatchThumbRequest.Item> items = batchThumbRequest.getItems();
+        if (items.contains(null)) {
+            throw new RuntimeException("参数错误");
+        }
+        if (items.size() > ThumbConstant.BATCH_THUMB_MAX_SIZE) {
+            throw new RuntimeException("单次最多操作 " + ThumbConstant.BATCH_THUMB_MAX_SIZE + " 条");
+        }
+        User loginUser = userService.getLoginUser(request);
+        if (Objects.isNull(loginUser)) {
+            throw new RuntimeException("用户未登录");
+        }
+        Long loginUserId = loginUser.getId();
+        String userThumbKey = RedisKeyUtil.getUserThumbKey(loginUserId);
+        long expireTime = Instant.now().plus(30, ChronoUnit.DAYS).toEpochMilli();
+        List<Object> args = new ArrayList<>(1 + items.size() * 2);
+        args.add(expireTime);
+        List<BatchThumbRequest.Item> validItems = BatchThumbSupport.appendArgs(items, args);
+        if (validItems.isEmpty()) {
+            return BatchThumbSupport.toResults(items, List.of());
+        }
+        // 整批一次 Lua 调用，逐条判断并更新用户点赞状态
+        List<?> luaResults = redisTemplate.execute(
+                RedisLuaScriptConstant.BATCH_THUMB_SCRIPT_MQ,
+                List.of(userThumbKey),
+                args.toArray()
+        );
+        List<BatchThumbResultVO> results = BatchThumbSupport.toResults(items, luaResults);
+        for (BatchThumbResultVO result : results) {
+            if (!result.getSuccess()) {
+                continue;
+            }
+            Long blogId = result.getBlogId();
+            boolean incr = result.getType() == ThumbTypeEnum.INCR.getValue();
+            cacheManager.putIfPresent(loginUserId, blogId, incr ? expireTime : ThumbConstant.UN_THUMB_CONSTANT);
+            ThumbEvent thumbEvent = ThumbEvent.builder()
+                    .blogId(blogId)
+                    .userId(loginUserId)
+                    .type(incr ? ThumbEvent.EventType.INCR : ThumbEvent.EventType.DECR)
+                    .eventTime(LocalDateTime.now())
+                    .build();
+            pulsarTemplate.sendAsync(ThumbConstant.THUMB_TOPIC, thumbEvent).exceptionally(ex -> {
+                // 发送失败回滚这一条的 Redis 状态
+                if (incr) {
+                    redisTemplate.opsForHash().delete(userThumbKey, blogId.toString());
+                    cacheManager.putIfPresent(loginUserId, blogId, ThumbConstant.UN_THUMB_CONSTANT);
+                } else {
+                    redisTemplate.opsForHash().put(userThumbKey, blogId.toString(), expireTime);
+                    cacheManager.putIfPresent(loginUserId, blogId, expireTime);
+                }
+                log.error("点赞事件发送失败: userId={}, blogId={}", loginUserId, blogId, ex);
+                return null;
+            });
+        }
+        return results;
+    }
+
     @Override  
     public Boolean hasThumb(Long blogId, Long userId) {  
         //return redisTemplate.opsForHash().hasKey(RedisKeyUtil.getUserThumbKey(userId), blogId.toString());
@@ -120,8 +200,11 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb>
         //redis版本不支持，所以使用了下面的方式，再RedisLuaScriptConstant.THUMB_SCRIPT的lua脚本里面有说明
         //ThumbRedisInfo thumbRedisInfo = (ThumbRedisInfo)redisTemplate.opsForHash().get(userThumbKey, blogId.toString());
         Long expireTime = (Long) redisTemplate.opsForHash().get(userThumbKey, blogId.toString());
-        //如果对象为空，则查询数据库数据
+        //如果对象为空，先用过滤器排除一定没点过赞的情况，再查询数据库数据
         if(Objects.isNull(expireTime)){
+            if (!thumbBloomFilter.mightContain(userId, blogId)) {
+                return false;
+            }
             return this.lambdaQuery()
                     .eq(Thumb::getUserId, userId)
                     .eq(Thumb::getBlogId, blogId)
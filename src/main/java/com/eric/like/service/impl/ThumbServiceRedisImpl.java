@@ -1,14 +1,19 @@
 package com.eric.like.service.impl;
 
-import cn.hutool.core.date.DateTime;
-import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.collection.CollUtil;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.eric.like.constant.RedisLuaScriptConstant;
+import com.eric.like.constant.ThumbConstant;
+import com.eric.like.manager.cache.CacheManager;
+import com.eric.like.manager.filter.ThumbBloomFilter;
 import com.eric.like.mapper.ThumbMapper;
+import com.eric.like.model.dto.thumb.BatchThumbRequest;
 import com.eric.like.model.dto.thumb.DoThumbRequest;
 import com.eric.like.model.entity.Thumb;
 import com.eric.like.model.entity.User;
 import com.eric.like.model.enums.LuaStatusEnum;
+import com.eric.like.model.enums.ThumbTypeEnum;
+import com.eric.like.model.vo.BatchThumbResultVO;
 import com.eric.like.service.ThumbService;
 import com.eric.like.service.UserService;
 import com.eric.like.util.RedisKeyUtil;
@@ -20,7 +25,9 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 @Service("thumbServiceRedis")
@@ -31,6 +38,11 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
     private final UserService userService;
   
     private final RedisTemplate<String, Object> redisTemplate;
+
+    private final ThumbBloomFilter thumbBloomFilter;
+
+    // 写入后同步本机本地缓存并广播失效，其他节点的本地缓存下次回源 Redis
+    private final CacheManager cacheManager;
   
     @Override  
     public Boolean doThumb(DoThumbRequest doThumbRequest, HttpServletRequest request) {
@@ -43,9 +55,9 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
         }
         Long blogId = doThumbRequest.getBlogId();  
   
-        String timeSlice = getTimeSlice();  
-        // Redis Key  
-        String tempThumbKey = RedisKeyUtil.getTempThumbKey(timeSlice);
+        // Redis Key，临时计数按 时间片 + 用户分片 拆开
+        long slice = RedisKeyUtil.getTimeSlice();
+        String tempThumbKey = RedisKeyUtil.getTempThumbKey(slice, RedisKeyUtil.getTempThumbShard(loginUser.getId()));
         String userThumbKey = RedisKeyUtil.getUserThumbKey(loginUser.getId());  
   
         // 执行 Lua 脚本  
@@ -53,11 +65,12 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
         log.info("epochMilli:{}", epochMilli);
         long result = redisTemplate.execute(
                 RedisLuaScriptConstant.THUMB_SCRIPT,
-                Arrays.asList(tempThumbKey, userThumbKey),
+                Arrays.asList(tempThumbKey, userThumbKey, ThumbConstant.SYNC_PENDING_KEY),
                 loginUser.getId(),  
                 blogId,
                 //todo 暂时传一个大于当前时间30天后的时间戳，待思考是否需要替换成博客的创建时间的30天的时间戳
-                epochMilli
+                epochMilli,
+                slice
         );
 
         if (LuaStatusEnum.FAIL.getValue() == result) {
@@ -65,7 +78,11 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
         }  
   
         // 更新成功才执行  
-        return LuaStatusEnum.SUCCESS.getValue() == result;  
+        boolean success = LuaStatusEnum.SUCCESS.getValue() == result;
+        if (success) {
+            cacheManager.putIfPresent(loginUser.getId(), blogId, epochMilli);
+        }
+        return success;
     }  
   
     @Override  
@@ -78,43 +95,88 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
             throw new RuntimeException("用户未登录");
         }
         Long blogId = doThumbRequest.getBlogId();  
-        // 计算时间片  
-        String timeSlice = getTimeSlice();  
-        // Redis Key  
-        String tempThumbKey = RedisKeyUtil.getTempThumbKey(timeSlice);  
+        // Redis Key，临时计数按 时间片 + 用户分片 拆开
+        long slice = RedisKeyUtil.getTimeSlice();
+        String tempThumbKey = RedisKeyUtil.getTempThumbKey(slice, RedisKeyUtil.getTempThumbShard(loginUser.getId()));
         String userThumbKey = RedisKeyUtil.getUserThumbKey(loginUser.getId());  
   
         // 执行 Lua 脚本  
         long result = redisTemplate.execute(  
                 RedisLuaScriptConstant.UNTHUMB_SCRIPT,  
-                Arrays.asList(tempThumbKey, userThumbKey),  
+                Arrays.asList(tempThumbKey, userThumbKey, ThumbConstant.SYNC_PENDING_KEY),  
                 loginUser.getId(),  
-                blogId  
+                blogId,
+                slice
         );  
         // 根据返回值处理结果  
         if (result == LuaStatusEnum.FAIL.getValue()) {  
             throw new RuntimeException("用户未点赞");  
         }  
+        cacheManager.putIfPresent(loginUser.getId(), blogId, ThumbConstant.UN_THUMB_CONSTANT);
         return LuaStatusEnum.SUCCESS.getValue() == result;  
     }
 
-    /**
-     * 获取时间片
-     */
-    private String getTimeSlice() {  
-        DateTime nowDate = DateUtil.date();
-        // 获取到当前时间前最近的整数秒，比如当前 11:20:23 ，获取到 11:20:20  
-        return DateUtil.format(nowDate, "HH:mm:") + (DateUtil.second(nowDate) / 10) * 10;  
-    }  
-  
+    @Override
+    public List<BatchThumbResultVO> batchThumb(BatchThumbRequest batchThumbRequest, HttpServletRequest request) {
+        if (batchThumbRequest == null || CollUtil.isEmpty(batchThumbRequest.getItems())) {
+            throw new RuntimeException("参数错误");
+        }
+        List<BatchThumbRequest.Item> items = batchThumbRequest.getItems();
+        if (items.contains(null)) {
+            throw new RuntimeException("参数错误");
+        }
+        if (items.size() > ThumbConstant.BATCH_THUMB_MAX_SIZE) {
+            throw new RuntimeException("单次最多操作 " + ThumbConstant.BATCH_THUMB_MAX_SIZE + " 条");
+        }
+        User loginUser = userService.getLoginUser(request);
+        if (Objects.isNull(loginUser)) {
+            throw new RuntimeException("用户未登录");
+        }
+        Long loginUserId = loginUser.getId();
+
+        long slice = RedisKeyUtil.getTimeSlice();
+        String tempThumbKey = RedisKeyUtil.getTempThumbKey(slice, RedisKeyUtil.getTempThumbShard(loginUserId));
+        String userThumbKey = RedisKeyUtil.getUserThumbKey(loginUserId);
+        List<Object> args = new ArrayList<>(3 + items.size() * 2);
+        long expireTime = Instant.now().plus(30, ChronoUnit.DAYS).toEpochMilli();
+        args.add(loginUserId);
+        args.add(expireTime);
+        args.add(slice);
+        List<BatchThumbRequest.Item> validItems = BatchThumbSupport.appendArgs(items, args);
+        if (validItems.isEmpty()) {
+            return BatchThumbSupport.toResults(items, List.of());
+        }
+        // 整批一次 Lua 调用，逐条判断并更新用户点赞状态和临时计数
+        List<?> luaResults = redisTemplate.execute(
+                RedisLuaScriptConstant.BATCH_THUMB_SCRIPT,
+                Arrays.asList(tempThumbKey, userThumbKey, ThumbConstant.SYNC_PENDING_KEY),
+                args.toArray()
+        );
+        List<BatchThumbResultVO> results = BatchThumbSupport.toResults(items, luaResults);
+        for (BatchThumbResultVO result : results) {
+            if (!result.getSuccess()) {
+                continue;
+            }
+            if (result.getType() == ThumbTypeEnum.INCR.getValue()) {
+                cacheManager.putIfPresent(loginUserId, result.getBlogId(), expireTime);
+            } else {
+                cacheManager.putIfPresent(loginUserId, result.getBlogId(), ThumbConstant.UN_THUMB_CONSTANT);
+            }
+        }
+        return results;
+    }
+
     @Override  
     public Boolean hasThumb(Long blogId, Long userId) {
         String userThumbKey = RedisKeyUtil.getUserThumbKey(userId);
         //redis版本不支持，所以使用了下面的方式，再RedisLuaScriptConstant.THUMB_SCRIPT的lua脚本里面有说明
         //ThumbRedisInfo thumbRedisInfo = (ThumbRedisInfo)redisTemplate.opsForHash().get(userThumbKey, blogId.toString());
         Long expireTime = (Long) redisTemplate.opsForHash().get(userThumbKey, blogId.toString());
-        //如果对象为空，则查询数据库数据
+        //如果对象为空，先用过滤器排除一定没点过赞的情况，再查询数据库数据
         if(Objects.isNull(expireTime)){
+            if (!thumbBloomFilter.mightContain(userId, blogId)) {
+                return false;
+            }
             return this.lambdaQuery()
                     .eq(Thumb::getUserId, userId)
                     .eq(Thumb::getBlogId, blogId)
@@ -19,4 +19,30 @@ public class RedisKeyUtil {
         return ThumbConstant.TEMP_THUMB_KEY_PREFIX.formatted(time);
     }
 
+    /**
+     * 获取 临时点赞记录 key，按时间片和分片
+     */
+    public static String getTempThumbKey(long slice, int shard) {
+        return ThumbConstant.TEMP_THUMB_KEY_PREFIX.formatted(slice + ":" + shard);
+    }
+
+    /**
+     * 当前时间片 id，纪元秒按时间片长度取整，不同日期不会复用同一个 key
+     */
+    public static long getTimeSlice() {
+        return getTimeSlice(System.currentTimeMillis());
+    }
+
+    public static long getTimeSlice(long epochMilli) {
+        return epochMilli / 1000 / ThumbConstant.TEMP_THUMB_SLICE_SECONDS;
+    }
+
+    /**
+     * 用户所在的临时点赞分片，同一用户总在同一分片
+     */
+    public static int getTempThumbShard(long userId) {
+        // 先打散再取模，避免 id 低位分布不均
+        return Math.floorMod(Long.hashCode(userId * 0x9E3779B97F4A7C15L), ThumbConstant.TEMP_THUMB_SHARD_COUNT);
+    }
+
 }
@@ -0,0 +1,171 @@
+package com.eric.like.manager.batch;
+
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.eric.like.constant.ThumbConstant;
+import com.eric.like.manager.cache.CacheManager;
+import com.eric.like.manager.counter.BlogThumbCounter;
+import com.eric.like.manager.filter.ThumbBloomFilter;
+import com.eric.like.mapper.BlogMapper;
+import com.eric.like.mapper.ThumbMapper;
+import com.eric.like.model.entity.Blog;
+import com.eric.like.model.entity.Thumb;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * 组提交的批内校验：同批抵消、已点赞、未点赞、博客不存在，以及提交后更新缓存失败不影响结果
+ */
+class ThumbGroupCommitterTest {
+
+    private static final long USER_ID = 1L;
+
+    private static final long BLOG_ID = 10L;
+
+    private final ThumbGroupCommitter committer = new ThumbGroupCommitter();
+
+    private final BlogMapper blogMapper = mock(BlogMapper.class);
+
+    private final ThumbMapper thumbMapper = mock(ThumbMapper.class);
+
+    private final BlogThumbCounter blogThumbCounter = mock(BlogThumbCounter.class);
+
+    private final CacheManager cacheManager = mock(CacheManager.class);
+
+    private final ThumbBloomFilter thumbBloomFilter = mock(ThumbBloomFilter.class);
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        Blog blog = new Blog();
+        blog.setId(BLOG_ID);
+        when(blogMapper.selectBatchIds(anyCollection())).thenReturn(List.of(blog));
+
+        ReflectionTestUtils.setField(committer, "blogMapper", blogMapper);
+        ReflectionTestUtils.setField(committer, "thumbMapper", thumbMapper);
+        ReflectionTestUtils.setField(committer, "blogThumbCounter", blogThumbCounter);
+        ReflectionTestUtils.setField(committer, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(committer, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(committer, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(committer, "thumbBloomFilter", thumbBloomFilter);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void likeThenUnlikeInSameBatchCancelsOut() {
+        ThumbGroupCommitter.ThumbOp like = op(BLOG_ID, true);
+        ThumbGroupCommitter.ThumbOp unlike = op(BLOG_ID, false);
+
+        try (MockedStatic<Db> db = mockStatic(Db.class)) {
+            committer.commit(List.of(like, unlike));
+            db.verifyNoInteractions();
+        }
+
+        assertThat(like.result().join()).isTrue();
+        assertThat(unlike.result().join()).isTrue();
+        verify(thumbMapper, never()).deleteByIds(anyCollection());
+        ArgumentCaptor<Map<Long, Long>> countMap = ArgumentCaptor.forClass(Map.class);
+        verify(blogThumbCounter).addAll(countMap.capture());
+        assertThat(countMap.getValue()).containsExactly(Map.entry(BLOG_ID, 0L));
+        verify(hashOperations).delete(ThumbConstant.USER_THUMB_KEY_PREFIX + USER_ID, String.valueOf(BLOG_ID));
+        verify(cacheManager).putIfPresent(USER_ID, BLOG_ID, ThumbConstant.UN_THUMB_CONSTANT);
+    }
+
+    @Test
+    void likeRejectedWhenAlreadyLiked() {
+        // Redis 中的点赞记录 id 可能被反序列化成 Integer
+        when(cacheManager.get(USER_ID, BLOG_ID)).thenReturn(123);
+        ThumbGroupCommitter.ThumbOp like = op(BLOG_ID, true);
+
+        committer.commit(List.of(like));
+
+        assertThatThrownBy(like.result()::join)
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("用户已点赞");
+        verifyNoInteractions(blogThumbCounter);
+    }
+
+    @Test
+    void unlikeRejectedWhenNotLiked() {
+        when(cacheManager.get(USER_ID, BLOG_ID)).thenReturn(ThumbConstant.UN_THUMB_CONSTANT);
+        ThumbGroupCommitter.ThumbOp unlike = op(BLOG_ID, false);
+
+        committer.commit(List.of(unlike));
+
+        assertThatThrownBy(unlike.result()::join)
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("用户未点赞");
+        verifyNoInteractions(blogThumbCounter);
+    }
+
+    @Test
+    void secondLikeInSameBatchRejected() {
+        ThumbGroupCommitter.ThumbOp first = op(BLOG_ID, true);
+        ThumbGroupCommitter.ThumbOp second = op(BLOG_ID, true);
+
+        try (MockedStatic<Db> db = mockStatic(Db.class)) {
+            committer.commit(List.of(first, second));
+            db.verify(() -> Db.saveBatch(argThat((Collection<Thumb> thumbs) -> thumbs.size() == 1)));
+        }
+
+        assertThat(first.result().join()).isTrue();
+        assertThatThrownBy(second.result()::join).hasRootCauseMessage("用户已点赞");
+    }
+
+    @Test
+    void missingBlogReturnsFalse() {
+        ThumbGroupCommitter.ThumbOp like = op(BLOG_ID + 1, true);
+
+        committer.commit(List.of(like));
+
+        assertThat(like.result().join()).isFalse();
+        verifyNoInteractions(blogThumbCounter);
+    }
+
+    @Test
+    void cacheFailureAfterCommitStillSucceeds() {
+        when(cacheManager.get(USER_ID, BLOG_ID)).thenReturn(123L);
+        doThrow(new RuntimeException("redis down")).when(hashOperations).delete(any(), any());
+        ThumbGroupCommitter.ThumbOp unlike = op(BLOG_ID, false);
+
+        committer.commit(List.of(unlike));
+
+        assertThat(unlike.result().join()).isTrue();
+        verify(thumbMapper).deleteByIds(List.of(123L));
+    }
+
+    private static ThumbGroupCommitter.ThumbOp op(long blogId, boolean thumb) {
+        return new ThumbGroupCommitter.ThumbOp(USER_ID, blogId, thumb, new CompletableFuture<>());
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.eric.like.manager.cache;
+
+import com.eric.like.config.LocalCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 默认的 top-k 准入下开启按热度过期：CacheManager 创建的探测器要维护频率估算，热 key 的存活时间比冷 key 长
+ */
+class CacheManagerHotnessExpiryTest {
+
+    @Test
+    void hotKeysLiveLongerWithTopKAdmission() {
+        for (LocalCacheProperties.DetectorType detector : LocalCacheProperties.DetectorType.values()) {
+            LocalCacheProperties properties = new LocalCacheProperties();
+            properties.setDetector(detector);
+            properties.setAdmission(LocalCacheProperties.AdmissionPolicy.TOP_K);
+            properties.getExpiry().setEnabled(true);
+            CacheManager cacheManager = new CacheManager();
+            ReflectionTestUtils.setField(cacheManager, "localCacheProperties", properties);
+            TopK hotKeyDetector = cacheManager.getHotKeyDetector();
+            Cache<Object, Object> localCache = cacheManager.localCache();
+
+            for (int i = 0; i < 500; i++) {
+                hotKeyDetector.add(1L, 2L, 1);
+            }
+            LongPairKey hot = new LongPairKey(1L, 2L);
+            LongPairKey cold = new LongPairKey(3L, 4L);
+            localCache.put(hot, 1L);
+            localCache.put(cold, 1L);
+
+            Policy.VarExpiration<Object, Object> expiration = localCache.policy().expireVariably().orElseThrow();
+            Duration minTtl = properties.getExpiry().getMinTtl();
+            String name = detector.name();
+            assertThat(expiration.getExpiresAfter(cold)).as(name).hasValueSatisfying(ttl ->
+                    assertThat(ttl).isLessThanOrEqualTo(minTtl));
+            assertThat(expiration.getExpiresAfter(hot)).as(name).hasValueSatisfying(ttl ->
+                    assertThat(ttl).isGreaterThan(minTtl.multipliedBy(10)));
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.eric.like.manager.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 热 Key 探测器 add() 吞吐对比：线程数从 1 翻倍到 CPU 核数的两倍，mvn test -Pbenchmark 执行
+ */
+@Slf4j
+@Tag("benchmark")
+class HotKeyDetectorThroughputTest {
+
+    private static final int KEY_SPACE = 100_000;
+    private static final long MEASURE_MILLIS = 300;
+
+    @Test
+    void addThroughputScaling() throws Exception {
+        String[] keys = zipfKeys(1 << 16);
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-12s %8s %16s", "detector", "threads", "ops/s"));
+        for (int threads = 1; threads <= maxThreads; threads <<= 1) {
+            int stripes = threads;
+            report.add(row("heavy-keeper", threads,
+                    measure(() -> new HeavyKeeper(100, 100000, 5, 0.92, 10), keys, threads)));
+            report.add(row("concurrent", threads,
+                    measure(() -> new ConcurrentHeavyKeeper(100, 100000, 5, 0.92, 10), keys, threads)));
+            report.add(row("striped", threads,
+                    measure(() -> new StripedHeavyKeeper(100, 100000, 5, 0.92, 10, stripes), keys, threads)));
+        }
+        report.forEach(log::info);
+    }
+
+    private static String row(String name, int threads, long opsPerSecond) {
+        return String.format("%-12s %8d %16d", name, threads, opsPerSecond);
+    }
+
+    private static long measure(Supplier<TopK> factory, String[] keys, int threads) throws InterruptedException {
+        TopK topK = factory.get();
+        LongAdder ops = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 7919;
+            Thread.ofPlatform().start(() -> {
+                ready.countDown();
+                long local = 0;
+                int i = offset;
+                while (running.get()) {
+                    topK.add(keys[i++ & (keys.length - 1)], 1);
+                    local++;
+                }
+                ops.add(local);
+                done.countDown();
+            });
+        }
+        ready.await();
+        TimeUnit.MILLISECONDS.sleep(MEASURE_MILLIS);
+        running.set(false);
+        done.await();
+        return ops.sum() * 1000 / MEASURE_MILLIS;
+    }
+
+    /**
+     * 近似 Zipf 分布的 key 序列，少数 key 占大部分访问
+     */
+    private static String[] zipfKeys(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            double u = random.nextDouble();
+            int rank = (int) Math.min(KEY_SPACE - 1, Math.floor(Math.pow(KEY_SPACE, u)) - 1);
+            keys[i] = "thumb:" + rank;
+        }
+        return keys;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.eric.like.manager.cache;
+
+import com.eric.like.config.LocalCacheProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 存活时间随频率单调增长，读取时不会延长
+ */
+class HotnessExpiryTest {
+
+    @Test
+    void ttlGrowsWithFrequencyWithinBounds() {
+        for (LocalCacheProperties.ExpiryCurve curve : LocalCacheProperties.ExpiryCurve.values()) {
+            HotnessExpiry expiry = new HotnessExpiry(key -> 0, Duration.ofSeconds(30), Duration.ofMinutes(30), curve, 1000);
+            assertThat(expiry.ttlNanos(0)).isEqualTo(TimeUnit.SECONDS.toNanos(30));
+            assertThat(expiry.ttlNanos(1000)).isEqualTo(TimeUnit.MINUTES.toNanos(30));
+            assertThat(expiry.ttlNanos(100_000)).isEqualTo(TimeUnit.MINUTES.toNanos(30));
+            assertThat(expiry.ttlNanos(10)).isLessThan(expiry.ttlNanos(100));
+        }
+    }
+
+    @Test
+    void readOnlyShortens() {
+        int[] frequency = {1000};
+        HotnessExpiry expiry = new HotnessExpiry(key -> frequency[0], Duration.ofSeconds(30), Duration.ofMinutes(30),
+                LocalCacheProperties.ExpiryCurve.LOG, 1000);
+        long created = expiry.expireAfterCreate("k", "v", 0);
+        assertThat(expiry.expireAfterRead("k", "v", 0, created / 2)).isEqualTo(created / 2);
+
+        frequency[0] = 0;
+        assertThat(expiry.expireAfterRead("k", "v", 0, created)).isEqualTo(TimeUnit.SECONDS.toNanos(30));
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.eric.like.manager.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 滑动窗口 Top K：窗口外的访问不再计数，旧热点被挤出
+ */
+class SlidingWindowTopKTest {
+
+    @Test
+    void oldBurstExpiresAfterWindow() {
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowTopK topK = new SlidingWindowTopK(10, 1024, 4, 5, 10_000, 1_000, now::get);
+
+        for (int i = 0; i < 1000; i++) {
+            topK.add("old", 1);
+        }
+        assertThat(topK.list()).extracting(Item::key).containsExactly("old");
+
+        // 窗口内仍然保留
+        now.set(9_500);
+        assertThat(topK.add("new", 1).isHotKey()).isFalse();
+        assertThat(topK.list()).extracting(Item::key).containsExactly("old");
+
+        // 滑出窗口后，旧热点被挤出，新 key 只需要达到 minCount
+        now.set(10_500);
+        topK.fading();
+        assertThat(topK.list()).isEmpty();
+        assertThat(topK.expelled()).extracting(Item::key).containsExactly("old");
+        for (int i = 0; i < 5; i++) {
+            topK.add(7L, 8L, 1);
+        }
+        assertThat(topK.list()).extracting(Item::key).containsExactly("7:8");
+        assertThat(topK.total()).isEqualTo(6);
+    }
+
+    @Test
+    void idleGapClearsWholeWindow() {
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowTopK topK = new SlidingWindowTopK(10, 1024, 4, 1, 5_000, 1_000, now::get);
+        for (int t = 0; t < 5; t++) {
+            now.set(t * 1_000L);
+            topK.add("k", 10);
+        }
+        assertThat(topK.total()).isEqualTo(50);
+
+        now.set(100_000);
+        topK.fading();
+        assertThat(topK.total()).isZero();
+        assertThat(topK.add("k", 1).isHotKey()).isTrue();
+        assertThat(topK.list()).extracting(Item::count).containsExactly(1);
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.eric.like.manager.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 条带阈值均分后只有 1 时，单次访问仍是冷 key，合并后计数达到 minCount 才是热 Key
+ */
+class StripedHeavyKeeperTest {
+
+    @Test
+    void singleAccessIsCold() {
+        StripedHeavyKeeper topK = new StripedHeavyKeeper(10, 1000, 4, 0.92, 10, 16);
+        assertThat(topK.add("once", 1).isHotKey()).isFalse();
+        assertThat(topK.add(1L, 2L, 1).isHotKey()).isFalse();
+
+        topK.merge();
+        assertThat(topK.add("once", 1).isHotKey()).isFalse();
+        assertThat(topK.list()).isEmpty();
+    }
+
+    @Test
+    void mergedCountReachingMinCountIsHot() {
+        StripedHeavyKeeper topK = new StripedHeavyKeeper(10, 1000, 4, 0.92, 10, 16);
+        for (int i = 0; i < 20; i++) {
+            topK.add("hot", 1);
+            topK.add(1L, 2L, 1);
+        }
+        topK.merge();
+        assertThat(topK.add("hot", 1).isHotKey()).isTrue();
+        assertThat(topK.add(1L, 2L, 1).isHotKey()).isTrue();
+        assertThat(topK.list()).extracting(Item::key).containsExactlyInAnyOrder("hot", "1:2");
+    }
+
+}
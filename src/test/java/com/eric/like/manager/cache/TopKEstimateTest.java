@@ -0,0 +1,55 @@
+package com.eric.like.manager.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * estimate() 对堆外的长尾 key 也给出频率估算
+ */
+class TopKEstimateTest {
+
+    @Test
+    void estimatesKeysOutsideTheHeap() {
+        List<TopK> detectors = List.of(
+                new HeavyKeeper(1, 1000, 4, 0.92, 1, true),
+                new ConcurrentHeavyKeeper(1, 1000, 4, 0.92, 1, true),
+                new StripedHeavyKeeper(1, 1000, 4, 0.92, 1, 2, true),
+                new SlidingWindowTopK(1, 1000, 4, 1, 60_000, 5_000)
+        );
+        for (TopK topK : detectors) {
+            for (int i = 0; i < 100; i++) {
+                topK.add("hot", 1);
+            }
+            for (int i = 0; i < 7; i++) {
+                topK.add("tail", 1);
+                topK.add(3L, 4L, 1);
+            }
+            String name = topK.getClass().getSimpleName();
+            assertThat(topK.estimate("hot")).as(name).isGreaterThanOrEqualTo(100);
+            assertThat(topK.estimate("tail")).as(name).isBetween(7, 20);
+            assertThat(topK.estimate(3L, 4L)).as(name).isBetween(7, 20);
+            assertThat(topK.estimate("never")).as(name).isLessThan(7);
+        }
+    }
+
+    @Test
+    void fadingHalvesEstimates() {
+        ConcurrentHeavyKeeper topK = new ConcurrentHeavyKeeper(10, 1000, 4, 0.92, 1, true);
+        topK.add("key", 64);
+        topK.fading();
+        assertThat(topK.estimate("key")).isEqualTo(32);
+    }
+
+    @Test
+    void untrackedDetectorsEstimateZero() {
+        ConcurrentHeavyKeeper topK = new ConcurrentHeavyKeeper(10, 1000, 4, 0.92, 1);
+        topK.add("key", 64);
+        topK.fading();
+        assertThat(topK.estimate("key")).isZero();
+        assertThat(topK.list()).extracting(Item::key).containsExactly("key");
+    }
+
+}
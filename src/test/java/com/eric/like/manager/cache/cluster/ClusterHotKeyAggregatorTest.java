@@ -0,0 +1,69 @@
+package com.eric.like.manager.cache.cluster;
+
+import com.eric.like.manager.cache.ConcurrentHeavyKeeper;
+import com.eric.like.manager.cache.Item;
+import com.eric.like.manager.cache.TopK;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 单 JVM 内模拟多个节点共用一个上报通道
+ */
+class ClusterHotKeyAggregatorTest {
+
+    private static final int NODES = 3;
+    private static final int MIN_COUNT = 10;
+    private static final String VIRAL_KEY = "thumb:1:1001";
+
+    @Test
+    void keyBelowLocalThresholdBecomesGloballyHot() {
+        HotKeyChannel channel = new LocalHotKeyChannel();
+        List<TopK> detectors = new ArrayList<>();
+        List<ClusterHotKeyAggregator> aggregators = new ArrayList<>();
+        List<List<Item>> warmed = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            TopK detector = new ConcurrentHeavyKeeper(100, 10000, 5, 0.92, 3);
+            detectors.add(detector);
+            aggregators.add(new ClusterHotKeyAggregator("node-" + i, detector, channel, 100, MIN_COUNT, warmed::add));
+        }
+
+        // 每个节点只看到 5 次，单机达不到 minCount
+        for (TopK detector : detectors) {
+            for (int i = 0; i < 5; i++) {
+                detector.add(VIRAL_KEY, 1);
+            }
+            detector.add("thumb:2:" + System.identityHashCode(detector), 1);
+        }
+        aggregators.forEach(ClusterHotKeyAggregator::publish);
+
+        for (ClusterHotKeyAggregator aggregator : aggregators) {
+            List<Item> global = aggregator.aggregate();
+            assertThat(global).extracting(Item::key).containsExactly(VIRAL_KEY);
+            assertThat(global.get(0).count()).isEqualTo(NODES * 5);
+            assertThat(aggregator.isGlobalHot(VIRAL_KEY)).isTrue();
+        }
+        assertThat(warmed).hasSize(NODES);
+    }
+
+    @Test
+    void nothingIsWarmedWhenClusterTotalStaysBelowThreshold() {
+        HotKeyChannel channel = new LocalHotKeyChannel();
+        List<List<Item>> warmed = new CopyOnWriteArrayList<>();
+        TopK detector = new ConcurrentHeavyKeeper(100, 10000, 5, 0.92, 3);
+        ClusterHotKeyAggregator aggregator =
+                new ClusterHotKeyAggregator("node-0", detector, channel, 100, MIN_COUNT, warmed::add);
+        for (int i = 0; i < 4; i++) {
+            detector.add(VIRAL_KEY, 1);
+        }
+
+        aggregator.tick();
+
+        assertThat(aggregator.isGlobalHot(VIRAL_KEY)).isFalse();
+        assertThat(warmed).isEmpty();
+    }
+}
@@ -0,0 +1,53 @@
+package com.eric.like.manager.cache.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 多个节点共享一个进程内通道，验证合并发送和忽略自身消息
+ */
+class CacheInvalidationBusTest {
+
+    @Test
+    void coalescesKeysAndSkipsOwnNode() {
+        LocalCacheInvalidationChannel channel = new LocalCacheInvalidationChannel();
+        List<CacheInvalidationMessage> messages = new CopyOnWriteArrayList<>();
+        channel.subscribe(messages::add);
+        List<String> invalidatedOnA = new CopyOnWriteArrayList<>();
+        List<String> invalidatedOnB = new CopyOnWriteArrayList<>();
+        // 间隔足够长，只由手动 flush 发送
+        try (CacheInvalidationBus busA = new CacheInvalidationBus("a", channel, Duration.ofHours(1), 512, invalidatedOnA::add);
+             CacheInvalidationBus ignored = new CacheInvalidationBus("b", channel, Duration.ofHours(1), 512, invalidatedOnB::add)) {
+            busA.publish("1:100");
+            busA.publish("1:100");
+            busA.publish("thumb:2:200");
+            busA.flush();
+
+            assertThat(messages).hasSize(1);
+            assertThat(invalidatedOnA).isEmpty();
+            assertThat(invalidatedOnB).containsExactlyInAnyOrder("1:100", "thumb:2:200");
+        }
+    }
+
+    @Test
+    void splitsLargeBatches() {
+        LocalCacheInvalidationChannel channel = new LocalCacheInvalidationChannel();
+        List<CacheInvalidationMessage> messages = new CopyOnWriteArrayList<>();
+        channel.subscribe(messages::add);
+        try (CacheInvalidationBus bus = new CacheInvalidationBus("a", channel, Duration.ofHours(1), 4, key -> {
+        })) {
+            for (int i = 0; i < 3; i++) {
+                bus.publish("1:" + i);
+            }
+            bus.flush();
+            assertThat(messages).hasSize(1);
+            assertThat(messages.getFirst().getKeys()).hasSize(3);
+        }
+    }
+
+}
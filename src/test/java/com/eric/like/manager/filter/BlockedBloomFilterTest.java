@@ -0,0 +1,66 @@
+package com.eric.like.manager.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分块布隆过滤器：无漏判，误判率接近配置值
+ */
+class BlockedBloomFilterTest {
+
+    @Test
+    void noFalseNegativesAndBoundedFalsePositives() {
+        int users = 1000;
+        int blogsPerUser = 100;
+        BlockedBloomFilter filter = new BlockedBloomFilter((long) users * blogsPerUser, 0.01);
+        for (long userId = 1; userId <= users; userId++) {
+            for (long blogId = 1; blogId <= blogsPerUser; blogId++) {
+                filter.put(userId, blogId);
+            }
+        }
+        for (long userId = 1; userId <= users; userId++) {
+            for (long blogId = 1; blogId <= blogsPerUser; blogId++) {
+                assertThat(filter.mightContain(userId, blogId)).isTrue();
+            }
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(i % users + 1, blogsPerUser + 1 + i)) {
+                falsePositives++;
+            }
+        }
+        // 分块会略微抬高误判率，放宽到配置值的 3 倍
+        assertThat((double) falsePositives / probes).isLessThan(0.03);
+    }
+
+    /**
+     * 上传到 Redis 的位图和 Lua 脚本的定位规则一致：块下标 = 块哈希 % 块数，块内位置 = (h1 + i * h2) % 512
+     */
+    @Test
+    void redisBitmapMatchesScriptOffsets() {
+        BlockedBloomFilter filter = new BlockedBloomFilter(10_000, 0.01);
+        for (long userId = 1; userId <= 100; userId++) {
+            filter.put(userId, userId * 31);
+        }
+        byte[] bitmap = filter.toRedisBitmap();
+        assertThat((long) bitmap.length * 8).isEqualTo(filter.bitSize());
+        int setBits = 0;
+        for (byte b : bitmap) {
+            setBits += Integer.bitCount(b & 0xFF);
+        }
+        assertThat(setBits).isPositive();
+        for (long userId = 1; userId <= 100; userId++) {
+            long[] hashes = BlockedBloomFilter.hashes(userId, userId * 31);
+            long base = hashes[0] % filter.blockCount() * 512;
+            for (int i = 0; i < filter.hashCount(); i++) {
+                long offset = base + (hashes[1] + i * hashes[2]) % 512;
+                int bit = (bitmap[(int) (offset >>> 3)] >>> (7 - (offset & 7))) & 1;
+                assertThat(bit).isEqualTo(1);
+            }
+        }
+    }
+
+}
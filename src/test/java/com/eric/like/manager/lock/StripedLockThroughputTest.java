@@ -0,0 +1,115 @@
+package com.eric.like.manager.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 用户级加锁吞吐对比：String.intern() + synchronized 与分条带 ReentrantLock，平台线程和虚拟线程各测一遍；
+ * 吞吐对比带 benchmark 标签，mvn test -Pbenchmark 执行
+ */
+@Slf4j
+class StripedLockThroughputTest {
+
+    private static final int USER_SPACE = 100_000;
+    private static final long MEASURE_MILLIS = 300;
+
+    @Test
+    @Tag("benchmark")
+    void lockThroughput() throws Exception {
+        long[] userIds = userIds(1 << 16);
+        StripedLock stripedLock = new StripedLock(1024, Duration.ZERO);
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %-9s %16s", "lock", "threads", "ops/s"));
+        for (boolean virtual : new boolean[]{false, true}) {
+            String kind = virtual ? "virtual" : "platform";
+            report.add(row("intern", kind, measure(userId -> {
+                synchronized (Long.toString(userId).intern()) {
+                    criticalSection();
+                }
+            }, userIds, threads, virtual)));
+            report.add(row("striped", kind, measure(userId ->
+                    stripedLock.execute(userId, StripedLockThroughputTest::criticalSection), userIds, threads, virtual)));
+        }
+        report.forEach(log::info);
+    }
+
+    @Test
+    void sameKeyIsMutuallyExclusive() throws Exception {
+        StripedLock stripedLock = new StripedLock(16, Duration.ofSeconds(1));
+        int[] counter = {0};
+        int threads = 8;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    stripedLock.execute(42L, () -> counter[0]++);
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        assertThat(counter[0]).isEqualTo(threads * 1000);
+    }
+
+    private static Object criticalSection() {
+        Thread.onSpinWait();
+        return null;
+    }
+
+    private static String row(String name, String kind, long opsPerSecond) {
+        return String.format("%-10s %-9s %16d", name, kind, opsPerSecond);
+    }
+
+    private static long measure(LongConsumer op, long[] userIds, int threads, boolean virtual) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 7919;
+            Runnable task = () -> {
+                long local = 0;
+                int i = offset;
+                while (running.get()) {
+                    op.accept(userIds[i++ & (userIds.length - 1)]);
+                    local++;
+                }
+                ops.add(local);
+                done.countDown();
+            };
+            if (virtual) {
+                Thread.ofVirtual().start(task);
+            } else {
+                Thread.ofPlatform().start(task);
+            }
+        }
+        TimeUnit.MILLISECONDS.sleep(MEASURE_MILLIS);
+        running.set(false);
+        done.await();
+        return ops.sum() * 1000 / MEASURE_MILLIS;
+    }
+
+    private static long[] userIds(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = random.nextInt(USER_SPACE);
+        }
+        return ids;
+    }
+
+}
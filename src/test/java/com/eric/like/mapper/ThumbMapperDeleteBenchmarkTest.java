@@ -0,0 +1,111 @@
+package com.eric.like.mapper;
+
+import cn.hutool.core.collection.ListUtil;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.eric.like.constant.ThumbConstant;
+import com.eric.like.model.entity.Thumb;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 批量取消点赞的删除语句对比：逐条 OR 拼接与按块 (userId, blogId) IN ((?,?),...)，
+ * 不连库，只比较最终下发的 SQL 长度、参数个数和生成耗时
+ */
+@Slf4j
+class ThumbMapperDeleteBenchmarkTest {
+
+    private static final String MAPPER_XML = "mapper/ThumbMapper.xml";
+
+    private static MappedStatement deleteByPairs;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), Thumb.class);
+        try (InputStream in = ThumbMapperDeleteBenchmarkTest.class.getClassLoader().getResourceAsStream(MAPPER_XML)) {
+            new XMLMapperBuilder(in, configuration, MAPPER_XML, configuration.getSqlFragments()).parse();
+        }
+        deleteByPairs = configuration.getMappedStatement(ThumbMapper.class.getName() + ".deleteByUserBlogPairs");
+    }
+
+    @Test
+    void tupleInIsBoundedPerStatement() {
+        List<Thumb> pairs = pairs(3);
+        BoundSql boundSql = deleteByPairs.getBoundSql(Map.of("pairs", pairs));
+        assertThat(normalize(boundSql.getSql()))
+                .isEqualTo("DELETE FROM thumb WHERE (userId, blogId) IN ( (?, ?) , (?, ?) , (?, ?) )");
+        assertThat(boundSql.getParameterMappings()).hasSize(6);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void orChainVersusTupleIn() {
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-8s %-6s %12s %12s %10s %10s", "rows", "mode", "statements", "maxSqlBytes", "params", "renderUs"));
+        for (int rows : new int[]{100, 1_000, 10_000}) {
+            List<Thumb> pairs = pairs(rows);
+
+            long start = System.nanoTime();
+            LambdaQueryWrapper<Thumb> wrapper = new LambdaQueryWrapper<>();
+            pairs.forEach(thumb -> wrapper.or().eq(Thumb::getUserId, thumb.getUserId()).eq(Thumb::getBlogId, thumb.getBlogId()));
+            String orSql = "DELETE FROM thumb " + wrapper.getCustomSqlSegment().replaceAll("#\\{[^}]+}", "?");
+            long orMicros = (System.nanoTime() - start) / 1000;
+            int orParams = wrapper.getParamNameValuePairs().size();
+            report.add(String.format("%-8d %-6s %12d %12d %10d %10d", rows, "or", 1, orSql.length(), orParams, orMicros));
+
+            start = System.nanoTime();
+            int statements = 0;
+            int maxSqlBytes = 0;
+            int tupleParams = 0;
+            for (List<Thumb> chunk : ListUtil.partition(pairs, ThumbConstant.DELETE_PAIRS_CHUNK_SIZE)) {
+                BoundSql boundSql = deleteByPairs.getBoundSql(Map.of("pairs", chunk));
+                statements++;
+                maxSqlBytes = Math.max(maxSqlBytes, normalize(boundSql.getSql()).length());
+                tupleParams += boundSql.getParameterMappings().size();
+            }
+            long tupleMicros = (System.nanoTime() - start) / 1000;
+            report.add(String.format("%-8d %-6s %12d %12d %10d %10d", rows, "tuple", statements, maxSqlBytes, tupleParams, tupleMicros));
+
+            // 参数个数相同，单条语句长度只和块大小有关，不随总行数增长
+            assertThat(tupleParams).isEqualTo(orParams);
+            assertThat(maxSqlBytes).isLessThan(ThumbConstant.DELETE_PAIRS_CHUNK_SIZE * 20);
+            if (rows > ThumbConstant.DELETE_PAIRS_CHUNK_SIZE) {
+                assertThat(maxSqlBytes).isLessThan(orSql.length());
+            }
+        }
+        report.forEach(log::info);
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+
+    private static List<Thumb> pairs(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Thumb> pairs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Thumb thumb = new Thumb();
+            thumb.setUserId(random.nextLong(1, 1_000_000_000_000L));
+            thumb.setBlogId(random.nextLong(1, 1_000_000_000_000L));
+            pairs.add(thumb);
+        }
+        return pairs;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.eric.like.util;
+
+import com.eric.like.constant.ThumbConstant;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 临时点赞 key：时间片按纪元秒取整，用户稳定落在同一分片且分布均匀
+ */
+class RedisKeyUtilTest {
+
+    @Test
+    void sliceIsEpochSecondsDividedBySliceLength() {
+        long start = 1_700_000_000_000L;
+        assertThat(RedisKeyUtil.getTimeSlice(start)).isEqualTo(170_000_000L);
+        assertThat(RedisKeyUtil.getTimeSlice(start + 9_999)).isEqualTo(170_000_000L);
+        assertThat(RedisKeyUtil.getTimeSlice(start + 10_000)).isEqualTo(170_000_001L);
+        // 相隔一天的同一时刻不再复用同一个 key
+        assertThat(RedisKeyUtil.getTimeSlice(start + 86_400_000L)).isNotEqualTo(RedisKeyUtil.getTimeSlice(start));
+        assertThat(RedisKeyUtil.getTempThumbKey(170_000_000L, 3)).isEqualTo("thumb:temp:170000000:3");
+    }
+
+    @Test
+    void shardIsStableAndEvenlySpread() {
+        int[] counts = new int[ThumbConstant.TEMP_THUMB_SHARD_COUNT];
+        // 连续且步长为 shard 数倍数的 id 也要打散
+        for (long userId = 0; userId < 80_000; userId += 8) {
+            int shard = RedisKeyUtil.getTempThumbShard(userId);
+            assertThat(shard).isEqualTo(RedisKeyUtil.getTempThumbShard(userId));
+            counts[shard]++;
+        }
+        int expected = 10_000 / counts.length;
+        for (int count : counts) {
+            assertThat(count).isBetween(expected * 8 / 10, expected * 12 / 10);
+        }
+    }
+
+}